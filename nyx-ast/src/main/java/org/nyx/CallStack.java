@@ -0,0 +1,51 @@
+package org.nyx;
+
+import java.util.Arrays;
+
+/**
+ * Shadow stack of the nyx functions an interpreter is currently executing. Every frame holds the
+ * name of the function and the line it is currently at, which is the line of the call it is
+ * waiting for. The stack is only written by the interpreting thread, other threads may take racy
+ * but memory safe snapshots of it for sampling.
+ */
+public final class CallStack {
+  private String[] names = new String[64];
+  private int[] lines = new int[64];
+  private volatile int depth = 1;
+
+  public CallStack() {
+    names[0] = "<main>";
+  }
+
+  public void push(String name, int callLine, int entryLine) {
+    int top = depth;
+    lines[top - 1] = callLine;
+    if (top == names.length) {
+      // Publish the new arrays before they are used, a sampler may still hold the old ones.
+      names = Arrays.copyOf(names, top * 2);
+      lines = Arrays.copyOf(lines, top * 2);
+    }
+    names[top] = name;
+    lines[top] = entryLine;
+    depth = top + 1;
+  }
+
+  public void pop() {
+    depth--;
+  }
+
+  /** Collapsed representation of the stack, frames separated by {@code ;}, innermost last. */
+  public String snapshot() {
+    String[] names = this.names;
+    int[] lines = this.lines;
+    int depth = Math.min(this.depth, Math.min(names.length, lines.length));
+
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      if (i > 0) builder.append(';');
+      builder.append(names[i]);
+      if (i > 0 || lines[i] > 0) builder.append(':').append(lines[i]);
+    }
+    return builder.toString();
+  }
+}
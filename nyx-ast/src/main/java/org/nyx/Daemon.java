@@ -0,0 +1,292 @@
+package org.nyx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.nyx.buildin.NyxFiles;
+import org.nyx.buildin.NyxModule;
+
+/**
+ * Server of {@code --daemon socket}. It runs scripts for clients connecting to a Unix domain
+ * socket, so the JVM, the compiled interpreter and the parsed programs stay warm between runs.
+ *
+ * <p>A client sends its working directory, whether its output is a console and its command line,
+ * followed by its standard input in chunks of an int length and the bytes, an empty chunk ends
+ * the input. The daemon answers with frames of a type byte, an int length and the bytes of
+ * standard output or error, and ends with an exit frame carrying the exit code as its length.
+ *
+ * <p>Runs are served one after another, each on a thread of its own with a large stack. Every run
+ * imports its modules again, so no state leaks from one run into the next, but the {@link
+ * ProgramCache} only compiles files again after they changed. The input of the client is read by
+ * another thread, which cancels the run as soon as the client went away. Runs failing with an
+ * unexpected error end with exit code 70, the daemon keeps serving the next client.
+ */
+public final class Daemon {
+  static final byte STDOUT = 1;
+  static final byte STDERR = 2;
+  static final byte EXIT = 3;
+
+  // Scripts recurse on the stack of the thread running them.
+  private static final long STACK_SIZE = 64L << 20;
+
+  private Daemon() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static void serve(Path socket) throws IOException {
+    // A socket left behind by a daemon that was killed is replaced, any other file is kept.
+    if (Files.exists(socket, LinkOption.NOFOLLOW_LINKS)) {
+      var attributes =
+          Files.readAttributes(socket, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      if (!attributes.isOther()) throw new IOException("File " + socket + " is not a socket.");
+      Files.delete(socket);
+    }
+
+    try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      server.bind(UnixDomainSocketAddress.of(socket));
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> socket.toFile().delete()));
+      for (; ; ) {
+        try (SocketChannel client = server.accept()) {
+          serve(client);
+        } catch (IOException ex) {
+          // The client went away, serve the next one.
+        }
+      }
+    }
+  }
+
+  private static void serve(SocketChannel client) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(input(client)));
+    Frames frames = new Frames(output(client));
+    PrintStream err = new PrintStream(frames.stream(STDERR), true, StandardCharsets.UTF_8);
+    try {
+      serve(in, frames, err);
+    } catch (IOException ex) {
+      throw ex;
+    } catch (Throwable ex) {
+      // One broken run must not take down the daemon and with it every later client.
+      err.println("Internal error: " + ex);
+      frames.exit(70);
+    }
+  }
+
+  private static void serve(DataInputStream in, Frames frames, PrintStream err) throws Throwable {
+    Path directory = Path.of(in.readUTF());
+    boolean console = in.readBoolean();
+    String[] args = new String[in.readInt()];
+    for (int i = 0; i < args.length; i++) args[i] = in.readUTF();
+
+    Nyx.Options options;
+    try {
+      options = Nyx.Options.parse(args);
+    } catch (IllegalArgumentException ex) {
+      options = null;
+    }
+    if (options == null
+        || options.files().size() != 1
+        || options.profile() != null
+        || options.snapshot() != null
+        || options.makeSnapshot() != null
+        || options.daemon() != null
+        || options.watch()) {
+      err.println("Daemon runs take [--fuel steps] [--timeout ms] [--max-alloc bytes] script");
+      frames.exit(64);
+      return;
+    }
+
+    Governor governor = options.governor();
+    frames.cancels(governor);
+    Output output = new Output(frames.stream(STDOUT));
+    output.setLineBuffered(console);
+    Stdin stdin = new Stdin();
+    Thread pump = new Thread(() -> stdin.pump(in, governor), "nyx-daemon-stdin");
+    pump.setDaemon(true);
+    pump.start();
+    Input input = new Input(stdin);
+    String script = options.files().get(0);
+
+    NyxModule.unloadAll();
+    NyxFiles.setDirectory(directory);
+    try {
+      FutureTask<Integer> task =
+          new FutureTask<>(
+              () ->
+                  Diagnostics.use(
+                      err, () -> output.use(() -> run(directory, script, governor, input, err))));
+      new Thread(null, task, "nyx-daemon-run", STACK_SIZE).start();
+      int code;
+      try {
+        code = task.get();
+      } catch (ExecutionException ex) {
+        throw ex.getCause();
+      }
+      output.flush();
+      frames.exit(code);
+    } finally {
+      NyxFiles.setDirectory(null);
+    }
+  }
+
+  private static int run(
+      Path directory, String script, Governor governor, Input input, PrintStream err) {
+    try (Interpreter interpreter = new Interpreter()) {
+      interpreter.setGovernor(governor);
+      interpreter.setInput(input);
+      Nyx.runCached(directory.resolve(script), script, interpreter);
+    } catch (IOException ex) {
+      err.println("Could not read script " + script + ".");
+      return 66;
+    }
+    return Nyx.hadError() ? 65 : 0;
+  }
+
+  // Frames written to the client, a failed write cancels the run.
+  private static final class Frames {
+    private final DataOutputStream out;
+    private Governor governor;
+
+    Frames(OutputStream out) {
+      this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    void cancels(Governor governor) {
+      this.governor = governor;
+    }
+
+    synchronized void write(byte type, byte[] bytes, int offset, int length) throws IOException {
+      try {
+        out.writeByte(type);
+        out.writeInt(length);
+        out.write(bytes, offset, length);
+        out.flush();
+      } catch (IOException ex) {
+        if (governor != null) governor.cancel();
+        throw ex;
+      }
+    }
+
+    synchronized void exit(int code) throws IOException {
+      out.writeByte(EXIT);
+      out.writeInt(code);
+      out.flush();
+    }
+
+    OutputStream stream(byte type) {
+      return new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+          write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+          if (length > 0) Frames.this.write(type, bytes, offset, length);
+        }
+      };
+    }
+  }
+
+  // Standard input of the client, read in chunks until the empty chunk by a thread of its own.
+  private static final class Stdin extends InputStream {
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private byte[] chunk = new byte[0];
+    private int position;
+
+    // Keeps reading after the input ended, the socket only ends when the client went away.
+    void pump(DataInputStream in, Governor governor) {
+      try {
+        for (boolean ended = false; ; ) {
+          byte[] bytes = new byte[in.readInt()];
+          in.readFully(bytes);
+          if (ended) continue;
+          ended = bytes.length == 0;
+          chunks.add(ended ? END : bytes);
+        }
+      } catch (IOException ex) {
+        chunks.add(END);
+        governor.cancel();
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) return 0;
+      while (position == chunk.length) {
+        if (chunk == END) return -1;
+        try {
+          chunk = chunks.take();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        }
+        position = 0;
+      }
+      int read = Math.min(length, chunk.length - position);
+      System.arraycopy(chunk, position, bytes, offset, read);
+      position += read;
+      return read;
+    }
+  }
+
+  /**
+   * Streams of the channel. The streams of {@link java.nio.channels.Channels} hold a lock while
+   * they block, so reading and writing on different threads would wait for each other.
+   */
+  static InputStream input(SocketChannel channel) {
+    return new InputStream() {
+      @Override
+      public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) throws IOException {
+        return length == 0 ? 0 : channel.read(ByteBuffer.wrap(bytes, offset, length));
+      }
+    };
+  }
+
+  static OutputStream output(SocketChannel channel) {
+    return new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) channel.write(buffer);
+      }
+    };
+  }
+}
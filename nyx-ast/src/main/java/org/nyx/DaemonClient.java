@@ -0,0 +1,73 @@
+package org.nyx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Client of {@code --connect socket}, it forwards its command line and standard input to a {@link
+ * Daemon} and writes what the script prints. Nothing of the interpreter is loaded in the client.
+ */
+final class DaemonClient {
+  private DaemonClient() {
+    throw new UnsupportedOperationException();
+  }
+
+  /** Runs the command line on the daemon and returns the exit code of the run. */
+  static int run(Path socket, String[] args) throws IOException {
+    try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Daemon.output(channel)));
+      out.writeUTF(Path.of("").toAbsolutePath().toString());
+      out.writeBoolean(System.console() != null);
+      out.writeInt(args.length);
+      for (String arg : args) out.writeUTF(arg);
+      out.flush();
+
+      Thread stdin = new Thread(() -> forward(System.in, out), "nyx-stdin");
+      stdin.setDaemon(true);
+      stdin.start();
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(Daemon.input(channel)));
+      byte[] buffer = new byte[8192];
+      for (; ; ) {
+        byte type = in.readByte();
+        int length = in.readInt();
+        if (type == Daemon.EXIT) return length;
+
+        OutputStream target = type == Daemon.STDERR ? System.err : System.out;
+        while (length > 0) {
+          int read = in.read(buffer, 0, Math.min(length, buffer.length));
+          if (read < 0) throw new IOException("Daemon closed the connection.");
+          target.write(buffer, 0, read);
+          length -= read;
+        }
+        target.flush();
+      }
+    }
+  }
+
+  // Sends the input in chunks, ending with an empty chunk. The daemon may be done before.
+  private static void forward(InputStream input, DataOutputStream out) {
+    byte[] buffer = new byte[8192];
+    try {
+      for (int read; (read = input.read(buffer)) >= 0; ) {
+        if (read == 0) continue;
+        out.writeInt(read);
+        out.write(buffer, 0, read);
+        out.flush();
+      }
+      out.writeInt(0);
+      out.flush();
+    } catch (IOException ex) {
+      // The run is over, nobody reads the rest of the input.
+    }
+  }
+}
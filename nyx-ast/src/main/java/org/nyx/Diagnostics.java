@@ -0,0 +1,256 @@
+package org.nyx;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Renders errors with the line of source they point at. Every source the {@link Scanner} sees is
+ * kept in memory, the offsets of its lines are indexed on the first error, so every further error
+ * finds its line in constant time. Sources which were never scanned are read once on the first
+ * error pointing into them.
+ *
+ * <p>Sources are kept by the filename instance their tokens carry, not by its text, so snippets
+ * sharing a name like {@code <script>} and older versions of a file keep their own source. A
+ * source is forgotten once no token with its filename instance is left.
+ *
+ * <p>Reports are collected and written to standard error in batches, when the batch is full, after
+ * a program was compiled or executed and when the process exits. Threads can {@link #use} another
+ * stream or writer for their reports and listen to them. Standard output is flushed before
+ * every report, so both keep their order on a shared terminal.
+ */
+public final class Diagnostics {
+  private static final class Ansi {
+    private static final String CSI = "\033[";
+    private static final String RESET = CSI + "0m";
+    private static final String BOLD = CSI + "1m";
+    private static final String RED = CSI + "91m";
+    private static final String BLUE = CSI + "94m";
+  }
+
+  private static final int BATCH_SIZE = 1 << 16;
+  private static final Map<Origin, Source> SOURCES = new ConcurrentHashMap<>();
+  private static final ReferenceQueue<String> FORGOTTEN = new ReferenceQueue<>();
+  private static final Batch STDERR = new Batch(null, null);
+  private static final ThreadLocal<Batch> CURRENT = new ThreadLocal<>();
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(STDERR::flush, "nyx-diagnostics"));
+  }
+
+  private Diagnostics() {
+    throw new UnsupportedOperationException();
+  }
+
+  /** An error as it was reported, before it is rendered. */
+  public record Report(String filename, int line, int column, String message) {}
+
+  /**
+   * Keeps the source for rendering errors in it. Returns the filename for the tokens of the
+   * source, errors pointing at tokens with another instance of the same name do not find it.
+   */
+  public static String register(String filename, String source) {
+    expunge();
+    // A copy, so no other source with the same name can be mistaken for this one.
+    String origin = new String(filename);
+    SOURCES.put(new Origin(origin, FORGOTTEN), new Source(source));
+    return origin;
+  }
+
+  private static void expunge() {
+    for (Reference<?> origin; (origin = FORGOTTEN.poll()) != null; ) SOURCES.remove(origin);
+  }
+
+  static void report(String filename, int line, int column, String message) {
+    // Keep the order of output and errors when both go to the same terminal.
+    Output.current().flush();
+
+    StringBuilder report = new StringBuilder(256);
+    report.append(Ansi.RED + Ansi.BOLD + "error: " + Ansi.RESET + Ansi.BOLD);
+    report.append(message).append(Ansi.RESET).append('\n');
+    report.append(Ansi.BLUE + " --> " + Ansi.RESET);
+    report.append(filename).append(':').append(line).append(':').append(column).append('\n');
+
+    Source source = source(filename);
+    if (source == null) {
+      report.append("Could not open source file.\n");
+    } else {
+      String content = source.line(line);
+      if (content != null) {
+        report.append(Ansi.BLUE + " | " + Ansi.RESET).append(content).append('\n');
+      }
+      report.append(Ansi.BLUE + " | " + Ansi.RESET);
+      report.append(" ".repeat(Math.max(0, column - 1)));
+      report.append(Ansi.RED + "^ ").append(message).append(Ansi.RESET).append('\n');
+    }
+
+    Batch batch = current();
+    if (batch.listener != null) batch.listener.accept(new Report(filename, line, column, message));
+    batch.append(report);
+  }
+
+  /** Writes the collected reports of this thread to their stream. */
+  public static void flush() {
+    current().flush();
+  }
+
+  /**
+   * Runs the code with the reports of this thread written to the stream instead of standard error,
+   * e.g. the error stream of the client a daemon runs a script for.
+   */
+  public static <T> T use(PrintStream err, Supplier<T> code) {
+    return use(new Batch(err, null), code);
+  }
+
+  /**
+   * Runs the code with the reports of this thread written to the writer, e.g. the error writer of
+   * a script context. The listener gets every report before it is written.
+   */
+  public static <T> T use(Writer err, Consumer<Report> listener, Supplier<T> code) {
+    return use(new Batch(err, listener), code);
+  }
+
+  private static <T> T use(Batch batch, Supplier<T> code) {
+    Batch previous = CURRENT.get();
+    CURRENT.set(batch);
+    try {
+      return code.get();
+    } finally {
+      batch.flush();
+      if (previous != null) CURRENT.set(previous);
+      else CURRENT.remove();
+    }
+  }
+
+  /** Code for another thread whose reports go where the reports of this thread go. */
+  public static <T> Supplier<T> inherit(Supplier<T> code) {
+    Batch batch = CURRENT.get();
+    if (batch == null) return code;
+    return () -> {
+      Batch previous = CURRENT.get();
+      CURRENT.set(batch);
+      try {
+        return code.get();
+      } finally {
+        if (previous != null) CURRENT.set(previous);
+        else CURRENT.remove();
+      }
+    };
+  }
+
+  private static Batch current() {
+    Batch batch = CURRENT.get();
+    return batch != null ? batch : STDERR;
+  }
+
+  // Reports waiting to be written, standard error is looked up on every write.
+  private static final class Batch {
+    // A PrintStream or a Writer, null for standard error.
+    private final Appendable err;
+    private final Consumer<Report> listener;
+    private final StringBuilder text = new StringBuilder();
+
+    Batch(Appendable err, Consumer<Report> listener) {
+      this.err = err;
+      this.listener = listener;
+    }
+
+    synchronized void append(CharSequence report) {
+      text.append(report);
+      if (text.length() >= BATCH_SIZE) flush();
+    }
+
+    synchronized void flush() {
+      if (text.length() == 0) return;
+      Appendable err = this.err != null ? this.err : System.err;
+      try {
+        err.append(text);
+        ((Flushable) err).flush();
+      } catch (IOException ex) {
+        // Like on a PrintStream, failing to report must not fail the code reporting.
+      }
+      text.setLength(0);
+    }
+  }
+
+  private static Source source(String filename) {
+    Source source = SOURCES.get(new Origin(filename, null));
+    if (source != null) return source;
+
+    try {
+      byte[] bytes = Files.readAllBytes(Path.of(filename));
+      expunge();
+      return SOURCES.computeIfAbsent(
+          new Origin(filename, FORGOTTEN),
+          origin -> new Source(new String(bytes, Charset.defaultCharset())));
+    } catch (IOException | InvalidPathException ex) {
+      return null;
+    }
+  }
+
+  // Filename instance of the tokens of a source, compared by identity.
+  private static final class Origin extends WeakReference<String> {
+    private final int hash;
+
+    Origin(String filename, ReferenceQueue<String> queue) {
+      super(filename, queue);
+      this.hash = System.identityHashCode(filename);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      return obj instanceof Origin other && get() != null && get() == other.get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  // Source text with the offsets of its lines, they are indexed on first use.
+  private static final class Source {
+    private final String text;
+    private int[] lines;
+
+    Source(String text) {
+      this.text = text;
+    }
+
+    /** Content of the line counted from one without its terminator, or null if there is none. */
+    synchronized String line(int line) {
+      if (lines == null) lines = index(text);
+      if (line < 1 || line >= lines.length) return null;
+
+      int start = lines[line - 1];
+      int end = lines[line] - 1;
+      if (end > start && text.charAt(end - 1) == '\r') end--;
+      return text.substring(start, Math.max(start, end));
+    }
+
+    // Offsets where lines start, followed by the offset one after the end of the text.
+    private static int[] index(String text) {
+      int count = 1;
+      for (int i = 0; i < text.length(); i++) if (text.charAt(i) == '\n') count++;
+
+      int[] lines = new int[count + 1];
+      int line = 1;
+      for (int i = 0; i < text.length(); i++) if (text.charAt(i) == '\n') lines[line++] = i + 1;
+      lines[count] = text.length() + 1;
+      return lines;
+    }
+  }
+}
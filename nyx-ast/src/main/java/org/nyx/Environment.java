@@ -1,15 +1,53 @@
 package org.nyx;
 
+import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
 
-public class Environment {
+public class Environment implements Serializable {
+  private static final long serialVersionUID = 1L;
+
   private final Environment enclosing;
-  private final Map<String, Object> values = new HashMap<>();
+  private Map<String, Object> values;
+  private final boolean readOnly;
+  // Set by the thread handing the environment to other threads, before it does so.
+  private boolean shared;
 
   public Environment(Environment enclosing) {
+    this(enclosing, new HashMap<>(), false);
+  }
+
+  /** Environment backed by the given map, changes of variables are written through to it. */
+  public Environment(Environment enclosing, Map<String, Object> values) {
+    this(enclosing, values, false);
+  }
+
+  private Environment(Environment enclosing, Map<String, Object> values, boolean readOnly) {
     this.enclosing = enclosing;
+    this.values = values;
+    this.readOnly = readOnly;
+  }
+
+  /** Environment that can be shared between threads, because nobody can change its variables. */
+  public static Environment readOnly(Map<String, Object> values) {
+    return new Environment(null, Map.copyOf(values), true);
+  }
+
+  /**
+   * Makes every single read, write and compound assignment of the variables of this environment
+   * and all enclosing ones atomic. Environments must be shared before other threads can reach
+   * them, e.g. the closure of a spawned function.
+   */
+  public void share() {
+    for (Environment environment = this;
+        environment != null && !environment.shared;
+        environment = environment.enclosing) {
+      if (!environment.readOnly)
+        environment.values = Collections.synchronizedMap(environment.values);
+      environment.shared = true;
+    }
   }
 
   public void declare(String name, Object value) {
@@ -21,9 +59,42 @@ public class Environment {
     else Nyx.error(name, "Variable '" + name.lexeme() + "' is already declared.");
   }
 
+  /**
+   * Declares a variable and returns a slot assigning it without looking it up again, e.g. the
+   * counter of a loop over a range. Values are still boxed, a counter outside the cache of {@link
+   * Long} allocates on every step. Once the environment is shared, the slot assigns through the
+   * synchronized variables like every other assignment.
+   */
+  Slot slot(String name, Object value) {
+    synchronized (values) {
+      values.put(name, value);
+      for (Map.Entry<String, Object> entry : values.entrySet()) {
+        if (entry.getKey().equals(name)) return new Slot(entry);
+      }
+    }
+    throw new IllegalStateException(name);
+  }
+
+  /** Variable of an environment, see {@link #slot(String, Object)}. */
+  final class Slot {
+    private final Map.Entry<String, Object> entry;
+
+    private Slot(Map.Entry<String, Object> entry) {
+      this.entry = entry;
+    }
+
+    // Environments are shared by the thread using them, before other threads can reach them.
+    void set(Object value) {
+      if (shared) values.put(entry.getKey(), value);
+      else entry.setValue(value);
+    }
+  }
+
   public void define(Token name, Object value) {
-    if (values.containsKey(name.lexeme())) values.put(name.lexeme(), value);
-    else if (enclosing != null) enclosing.define(name, value);
+    if (values.containsKey(name.lexeme())) {
+      if (readOnly) Nyx.error(name, "Can not assign to builtin '" + name.lexeme() + "'.");
+      else values.put(name.lexeme(), value);
+    } else if (enclosing != null) enclosing.define(name, value);
     else Nyx.error(name, "Variable '" + name.lexeme() + "' is not declared.");
   }
 
@@ -32,8 +103,10 @@ public class Environment {
   }
 
   public void compute(Token name, BiFunction<String, Object, Object> function) {
-    if (values.containsKey(name.lexeme())) values.compute(name.lexeme(), function);
-    else if (enclosing != null) enclosing.compute(name, function);
+    if (values.containsKey(name.lexeme())) {
+      if (readOnly) Nyx.error(name, "Can not assign to builtin '" + name.lexeme() + "'.");
+      else values.compute(name.lexeme(), function);
+    } else if (enclosing != null) enclosing.compute(name, function);
     else Nyx.error(name, "Variable '" + name.lexeme() + "' is not declared.");
   }
 
@@ -70,4 +143,9 @@ public class Environment {
   public Environment getEnclosing() {
     return enclosing;
   }
+
+  /** Variables declared directly in this environment. */
+  public Map<String, Object> getValues() {
+    return Collections.unmodifiableMap(values);
+  }
 }
@@ -1,8 +1,9 @@
 package org.nyx;
 
+import java.io.Serializable;
 import java.util.List;
 
-public interface Expr {
+public interface Expr extends Serializable {
   static interface Visitor<R> {
     R visitBinaryExpr(Binary expr);
 
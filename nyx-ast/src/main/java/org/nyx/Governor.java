@@ -0,0 +1,252 @@
+package org.nyx;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.nyx.Interpreter.RuntimeError;
+
+/**
+ * Limits of one execution: a fuel budget, a wall-clock deadline, an approximate allocation quota
+ * and cancellation by the host. Every loop iteration and every call burns one unit of fuel. The
+ * fast path only decrements a counter, fuel is drawn from the budget in slices and the other
+ * limits are checked whenever a new slice is drawn, so a cancelled or timed out execution stops
+ * within a few thousand iterations or calls. Natives blocking the thread, like joining a task or
+ * receiving from a channel, wait in short steps and call {@link #checkpoint()} in between.
+ *
+ * <p>Spawned tasks and parallel chunks run under a {@link #child() child}. Children draw fuel and
+ * allocation quota from the budget of their root, share its deadline and are cancelled together
+ * with their parent, so spreading work over threads does not extend any limit. The clock starts
+ * when the governor or one of its children supervises the first execution. Allocations are the
+ * bytes allocated by the supervised threads while they execute, measured per thread and charged
+ * to the budget whenever a slice of fuel is drawn. Natives about to allocate a large block at once
+ * {@link #reserve(long) reserve} it first. Modules loaded while supervised are executed under the
+ * same governor.
+ */
+public final class Governor {
+  public static final long UNLIMITED = Long.MAX_VALUE;
+  /** Longest time natives block between two {@link #checkpoint() checkpoints}. */
+  public static final long WAIT_MILLIS = 10;
+
+  // Fuel drawn from the budget at once, the other limits are checked once per slice.
+  private static final int SLICE = 4096;
+  // Smaller allocations of natives are only charged when the next slice is drawn.
+  private static final long RESERVE_MIN = 1 << 16;
+  private static final ThreadLocal<Governor> CURRENT = new ThreadLocal<>();
+
+  private final long fuel;
+  private final long timeout;
+  private final long allocations;
+  private final Governor parent;
+  private final Budget budget;
+
+  // Fuel drawn but not burnt yet and bytes of the thread already charged, owned by one thread.
+  private int countdown;
+  private long allocated;
+  private volatile boolean cancelled;
+
+  /** Governor without any limits, it can still be cancelled. */
+  public Governor() {
+    this(UNLIMITED, null, UNLIMITED);
+  }
+
+  /**
+   * @param fuel number of loop iterations and calls, or {@link #UNLIMITED}
+   * @param timeout maximal wall-clock time, or null for no deadline
+   * @param allocations approximate number of bytes, or {@link #UNLIMITED}
+   */
+  public Governor(long fuel, Duration timeout, long allocations) {
+    this(fuel, timeout != null ? timeout.toNanos() : UNLIMITED, allocations, null, null);
+  }
+
+  private Governor(long fuel, long timeout, long allocations, Governor parent, Budget budget) {
+    if (fuel <= 0 || timeout <= 0 || allocations <= 0)
+      throw new IllegalArgumentException("Limits must be positive.");
+    this.fuel = fuel;
+    this.timeout = timeout;
+    this.allocations = allocations;
+    this.parent = parent;
+    this.budget = budget != null ? budget : new Budget(fuel, allocations);
+  }
+
+  /** Governor of the executions supervised on this thread, or a new one without limits. */
+  public static Governor current() {
+    Governor governor = CURRENT.get();
+    return governor != null ? governor : new Governor();
+  }
+
+  /**
+   * Governor for a task spawned by this execution. It draws from the same budget, has the same
+   * deadline and is cancelled together with this governor.
+   */
+  public Governor child() {
+    return new Governor(fuel, timeout, allocations, this, budget);
+  }
+
+  /** Governor with the same limits and a full budget, for running the same code again. */
+  public Governor renew() {
+    return new Governor(fuel, timeout, allocations, null, null);
+  }
+
+  /** Runs the code with this governor as the current governor of the thread. */
+  public <T> T supervise(Supplier<T> code) {
+    Governor previous = CURRENT.get();
+    CURRENT.set(this);
+    // Allocations are measured per thread, so count from where this thread starts. A child running
+    // on the thread of its parent takes over measuring, so no byte is charged twice.
+    boolean measure = allocations != UNLIMITED && Allocations.THREADS != null && previous != this;
+    boolean nested = measure && previous != null && previous.budget == budget;
+    try {
+      budget.start(timeout);
+      if (nested) previous.charge();
+      if (measure) allocated = Allocations.THREADS.getCurrentThreadAllocatedBytes();
+      return code.get();
+    } finally {
+      if (measure) charge();
+      if (nested) previous.allocated = allocated;
+      if (previous != null) CURRENT.set(previous);
+      else CURRENT.remove();
+    }
+  }
+
+  /** Stops the execution at its next check, may be called from any thread. */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled || parent != null && parent.isCancelled();
+  }
+
+  /** Burns one unit of fuel, the token is the position reported if a limit is exceeded. */
+  public void tick(Token token) {
+    if (--countdown < 0) check(token);
+  }
+
+  /**
+   * Checks cancellation and the deadline without burning fuel. Natives blocking the thread call
+   * it at least every {@link #WAIT_MILLIS}, errors get the position of the call.
+   */
+  public void checkpoint() {
+    if (isCancelled()) throw new LimitExceeded(null, "Execution was cancelled.");
+    if (pastDeadline()) throw new LimitExceeded(null, deadlineMessage());
+  }
+
+  /**
+   * Checks that the allocation quota of the current governor of the thread has room for the bytes
+   * a native is about to allocate at once, e.g. a large array. Without it, a single allocation
+   * could exhaust the heap long before the quota is sampled again. The bytes are charged once they
+   * are allocated, like all others, errors get the position of the call.
+   */
+  public static void reserve(long bytes) {
+    if (bytes < RESERVE_MIN) return;
+    Governor governor = CURRENT.get();
+    if (governor == null || governor.allocations == UNLIMITED) return;
+    long left =
+        Allocations.THREADS != null ? governor.charge() : governor.budget.allocations.get();
+    if (left - bytes < 0) throw new LimitExceeded(null, governor.quotaMessage());
+  }
+
+  /** Gives fuel drawn but not burnt back to the budget, e.g. when a task finishes. */
+  public void release() {
+    if (countdown > 0) budget.release(countdown);
+    countdown = 0;
+  }
+
+  private void check(Token token) {
+    // Stay at zero while a limit is exceeded, so every further step checks again.
+    countdown = 0;
+    if (isCancelled()) throw new LimitExceeded(token, "Execution was cancelled.");
+    if (pastDeadline()) throw new LimitExceeded(token, deadlineMessage());
+    if (allocations != UNLIMITED && Allocations.THREADS != null && charge() < 0)
+      throw new LimitExceeded(token, quotaMessage());
+
+    int slice = budget.draw();
+    if (slice == 0)
+      throw new LimitExceeded(token, "Execution ran out of fuel after " + fuel + " steps.");
+    // This step burns the first unit of the slice.
+    countdown = slice - 1;
+  }
+
+  private boolean pastDeadline() {
+    return timeout != UNLIMITED && budget.started && System.nanoTime() - budget.deadline > 0;
+  }
+
+  private String quotaMessage() {
+    return "Execution exceeded its allocation quota of " + allocations + " bytes.";
+  }
+
+  private String deadlineMessage() {
+    return "Execution exceeded its deadline of " + timeout / 1_000_000 + " ms.";
+  }
+
+  // Charges the bytes this thread allocated since the last charge, returns the remaining quota.
+  private long charge() {
+    long now = Allocations.THREADS.getCurrentThreadAllocatedBytes();
+    long bytes = now - allocated;
+    allocated = now;
+    return budget.allocations.addAndGet(-bytes);
+  }
+
+  // Limits left for a governor and all its children.
+  private static final class Budget {
+    private final AtomicLong fuel;
+    private final AtomicLong allocations;
+    private volatile boolean started;
+    private volatile long deadline;
+
+    Budget(long fuel, long allocations) {
+      this.fuel = fuel != UNLIMITED ? new AtomicLong(fuel) : null;
+      this.allocations = new AtomicLong(allocations);
+    }
+
+    void start(long timeout) {
+      if (started) return;
+      synchronized (this) {
+        if (started) return;
+        if (timeout != UNLIMITED) deadline = System.nanoTime() + timeout;
+        started = true;
+      }
+    }
+
+    // Draws the next slice of fuel, zero if the fuel is burnt.
+    int draw() {
+      if (fuel == null) return SLICE;
+      return (int) Math.min(SLICE, fuel.getAndUpdate(left -> left - Math.min(SLICE, left)));
+    }
+
+    void release(int unburnt) {
+      if (fuel != null) fuel.addAndGet(unburnt);
+    }
+  }
+
+  // Loaded on first use only, executions without an allocation quota do not need management.
+  private static final class Allocations {
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private static com.sun.management.ThreadMXBean threads() {
+      try {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported()) {
+          threads.setThreadAllocatedMemoryEnabled(true);
+          return threads;
+        }
+      } catch (LinkageError | UnsupportedOperationException ex) {
+        // The runtime can not measure allocations, the quota is not enforced.
+      }
+      return null;
+    }
+  }
+
+  /** Error of an execution that exceeded one of its limits. */
+  public static class LimitExceeded extends RuntimeError {
+    public LimitExceeded(Token token, String msg) {
+      super(token, msg);
+    }
+
+    @Override
+    public LimitExceeded withToken(Token token) {
+      return new LimitExceeded(token, getMessage());
+    }
+  }
+}
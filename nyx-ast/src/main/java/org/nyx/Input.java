@@ -0,0 +1,41 @@
+package org.nyx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Line input of {@code input()}, {@code stdinLines()} and the REPL. All of them read standard
+ * input through the same buffered reader, so lines buffered by one of them are not lost for the
+ * others. Input is decoded as UTF-8, malformed bytes are replaced.
+ */
+public final class Input {
+  public static final int BUFFER_SIZE = 1 << 16;
+
+  private final BufferedReader reader;
+
+  public Input(InputStream stream) {
+    this(new InputStreamReader(stream, StandardCharsets.UTF_8));
+  }
+
+  public Input(Reader reader) {
+    this.reader = new BufferedReader(reader, BUFFER_SIZE);
+  }
+
+  /** Standard input, it is opened on first use. */
+  public static Input stdin() {
+    return Stdin.INPUT;
+  }
+
+  private static final class Stdin {
+    private static final Input INPUT = new Input(System.in);
+  }
+
+  /** Reads the next line without its terminator, returns null at the end of the input. */
+  public synchronized String readLine() throws IOException {
+    return reader.readLine();
+  }
+}
@@ -2,19 +2,28 @@ package org.nyx;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import org.nyx.Governor.LimitExceeded;
 import org.nyx.buildin.NyxCallable;
 import org.nyx.buildin.NyxClass;
 import org.nyx.buildin.NyxContainer;
 import org.nyx.buildin.NyxFunction;
 import org.nyx.buildin.NyxGlobals;
 import org.nyx.buildin.NyxInstance;
+import org.nyx.buildin.NyxIterable;
 import org.nyx.buildin.NyxModule;
+import org.nyx.buildin.NyxNumber;
+import org.nyx.buildin.NyxRange;
+import org.nyx.buildin.NyxString;
+import org.nyx.jfr.NyxRuntimeErrorEvent;
+import org.nyx.jmx.InterpreterStats;
 
-public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
+public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void>, AutoCloseable {
 
   public static class RuntimeError extends RuntimeException {
     private final Token token;
@@ -23,40 +32,134 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
       super(msg);
       this.token = token;
     }
+
+    /** Error raised by native code, the interpreter attaches the token of the calling site. */
+    public RuntimeError(String msg) {
+      this(null, msg);
+    }
+
+    public Token getToken() {
+      return token;
+    }
+
+    /** The same error at the given position, subclasses keep their type. */
+    public RuntimeError withToken(Token token) {
+      return new RuntimeError(token, getMessage());
+    }
   }
 
-  private final Map<Expr, Integer> locals = new HashMap<>();
+  // Builtins are shared by all interpreters, they are enclosing every global environment.
+  private static final Environment BUILTINS = Environment.readOnly(NyxGlobals.GLOBALS);
 
-  // Global environment
-  private Environment environment = new Environment(null);
+  // State of one execution, an interpreter must only be used by one thread at a time.
+  private Environment environment;
+  private Program program = Program.EMPTY;
   private Optional<Object> returnValue = null;
+  private final CallStack callStack = new CallStack();
+  private final InterpreterStats stats = new InterpreterStats();
+  private Governor governor = Governor.current();
+  private Output output = Output.current();
+  private Input input = Input.stdin();
 
   public Interpreter() {
-    for (var pair : NyxGlobals.GLOBALS.entrySet()) {
-      environment.declare(pair.getKey(), pair.getValue());
+    this(new Environment(BUILTINS));
+  }
+
+  /** Interpreter declaring its global variables in the given environment. */
+  public Interpreter(Environment globals) {
+    this.environment = globals;
+    if (InterpreterStats.AUTO_REGISTER) stats.register();
+  }
+
+  /** Environment with the builtins, it should enclose the global environment of interpreters. */
+  public static Environment builtins() {
+    return BUILTINS;
+  }
+
+  public void interpret(Program program) {
+    try {
+      execute(program);
+    } catch (RuntimeError e) {
+      report(e);
+    } finally {
+      Diagnostics.flush();
     }
   }
 
-  public void interpret(List<Stmt> statements) {
+  /**
+   * Executes the program and throws runtime errors instead of reporting them. Returns the value of
+   * the last statement if it is an expression, else nil.
+   */
+  public Object execute(Program program) {
+    return supervise(() -> run(program));
+  }
+
+  /**
+   * Runs host code calling into this interpreter, e.g. natives calling nyx functions on another
+   * thread, with the governor and output of this interpreter.
+   */
+  public <T> T supervise(Supplier<T> code) {
+    return output.use(() -> governor.supervise(code));
+  }
+
+  /**
+   * New interpreter for code running on behalf of this one on another thread. It reads and writes
+   * the same input and output and runs under a child of the governor.
+   */
+  public Interpreter fork() {
+    Interpreter interpreter = new Interpreter();
+    interpreter.governor = governor.child();
+    interpreter.output = output;
+    interpreter.input = input;
+    return interpreter;
+  }
+
+  private Object run(Program program) {
+    Program previous = this.program;
     try {
-      for (Stmt statement : statements) {
-        execute(statement);
+      this.program = program;
+      Object value = null;
+      for (Stmt statement : program.getStatements()) {
+        if (statement instanceof Stmt.Expression expression) {
+          stats.statementExecuted();
+          value = evaluate(expression.expr());
+        } else {
+          execute(statement);
+          value = null;
+        }
       }
-    } catch (RuntimeError e) {
-      Nyx.error(e.token, e.getMessage());
+      return value;
+    } finally {
+      this.program = previous;
     }
   }
 
   public void interpret(Expr expression) {
     try {
       Object value = evaluate(expression);
-      System.out.println(value);
+      output.println(stringify(value));
     } catch (RuntimeError error) {
-      Nyx.error(error.token, error.getMessage());
+      report(error);
+    } finally {
+      Diagnostics.flush();
     }
   }
 
+  private void report(RuntimeError error) {
+    stats.runtimeError();
+    NyxRuntimeErrorEvent event = new NyxRuntimeErrorEvent();
+    if (event.isEnabled()) {
+      event.message = error.getMessage();
+      event.file = error.token.filename();
+      event.line = error.token.line();
+      event.column = error.token.column();
+      event.commit();
+    }
+    Nyx.error(error.token, error.getMessage());
+  }
+
   public void execute(Stmt stmt) {
+    stats.statementExecuted();
     stmt.accept(this);
   }
 
@@ -74,12 +177,19 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     }
   }
 
-  public Object evaluate(Expr expr) {
-    return expr.accept(this);
+  /** Executes a block of another program, e.g. the body of a function declared in a module. */
+  public void execute(Stmt.Block stmts, Environment env, Program program) {
+    Program previous = this.program;
+    try {
+      this.program = program;
+      execute(stmts, env);
+    } finally {
+      this.program = previous;
+    }
   }
 
-  public void resolve(Expr expr, int depth) {
-    locals.put(expr, depth);
+  public Object evaluate(Expr expr) {
+    return expr.accept(this);
   }
 
   @Override
@@ -101,6 +211,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
   @Override
   public Void visitBlockStmt(Stmt.Block stmt) {
+    stats.environmentAllocated();
     execute(stmt, new Environment(environment));
     return null;
   }
@@ -114,6 +225,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
       Object obj = evaluate(stmt.superclass());
       if (obj instanceof NyxClass cast) {
         superclass = cast;
+        stats.environmentAllocated();
         environment = new Environment(environment);
         environment.declare("super", superclass);
       } else throw new RuntimeError(stmt.superclass().name(), "Superclass must be a class.");
@@ -121,7 +233,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     Map<String, NyxFunction> methods = new HashMap<>();
     for (var method : stmt.methods()) {
-      methods.put(method.name().lexeme(), new NyxFunction(method, environment));
+      methods.put(method.name().lexeme(), new NyxFunction(method, environment, program));
     }
 
     NyxClass created = new NyxClass(stmt.name().lexeme(), superclass, methods);
@@ -134,9 +246,119 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     return null;
   }
 
+  @Override
+  public Void visitForInStmt(Stmt.ForIn stmt) {
+    Object iterable = evaluate(stmt.iterable());
+    String name = stmt.name().lexeme();
+
+    // One environment for the whole loop, the loop variable is assigned on every step.
+    Environment previous = this.environment;
+    stats.environmentAllocated();
+    this.environment = new Environment(previous);
+    try {
+      // A body block declaring nothing stays empty, one scope serves all steps.
+      Environment scope = null;
+      if (stmt.body() instanceof Stmt.Block block && !declares(block)) {
+        stats.environmentAllocated();
+        scope = new Environment(environment);
+      }
+
+      if (iterable instanceof NyxRange range) {
+        // Variables hold objects, so counters outside the cache of Long are boxed on every step.
+        Environment.Slot counter = environment.slot(name, null);
+        for (long i = range.start(); i < range.stop(); i++) {
+          counter.set(i);
+          executeBody(stmt.body(), scope);
+          if (returnValue != null) break;
+          governor.tick(stmt.keyword());
+        }
+        return null;
+      }
+
+      Iterator<Object> iterator = iterator(stmt.keyword(), iterable);
+      try {
+        while (iterator.hasNext()) {
+          environment.declare(name, iterator.next());
+          executeBody(stmt.body(), scope);
+          if (returnValue != null) break;
+          governor.tick(stmt.keyword());
+        }
+      } finally {
+        NyxIterable.release(iterator);
+      }
+      return null;
+    } catch (RuntimeError error) {
+      // Errors of native iterables get the position of the loop.
+      if (error.token == null) throw error.withToken(stmt.keyword());
+      throw error;
+    } finally {
+      this.environment = previous;
+    }
+  }
+
+  // Runs the body of a loop, in the given scope if the body is a block which may reuse one.
+  private void executeBody(Stmt body, Environment scope) {
+    if (scope == null) {
+      execute(body);
+      return;
+    }
+    stats.statementExecuted();
+    execute((Stmt.Block) body, scope);
+  }
+
+  private static boolean declares(Stmt.Block block) {
+    for (Stmt statement : block.statements()) {
+      if (statement instanceof Stmt.Let
+          || statement instanceof Stmt.Function
+          || statement instanceof Stmt.Class
+          || statement instanceof Stmt.Import) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Iterator over native iterables and instances. Instances of classes with an {@code iter()}
+   * method iterate over its result, other instances are iterators on their own. Their {@code
+   * hasNext} and {@code next} methods are looked up and bound once for the whole loop.
+   */
+  private Iterator<Object> iterator(Token keyword, Object iterable) {
+    if (iterable instanceof NyxIterable nativeIterable) return nativeIterable.iterator(this);
+    if (!(iterable instanceof NyxInstance instance))
+      throw new RuntimeError(keyword, "Can only iterate over iterables and iterators.");
+
+    if (instance.getCreator().hasMethod("iter")) {
+      Object iterator = method(keyword, instance, "iter").call(this, List.of());
+      if (iterator != instance) return iterator(keyword, iterator);
+    }
+
+    NyxCallable hasNext = method(keyword, instance, "hasNext");
+    NyxCallable next = method(keyword, instance, "next");
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        if (hasNext.call(Interpreter.this, List.of()) instanceof Boolean b) return b;
+        throw new RuntimeError(keyword, "Expected hasNext() to return a boolean.");
+      }
+
+      @Override
+      public Object next() {
+        return next.call(Interpreter.this, List.of());
+      }
+    };
+  }
+
+  private NyxCallable method(Token keyword, NyxInstance instance, String name) {
+    Token token =
+        new Token(
+            TokenType.IDENTIFIER, keyword.filename(), name, null, keyword.line(), keyword.column());
+    if (instance.get(token, stats) instanceof NyxCallable method && method.aritiy() == 0)
+      return method;
+    throw new RuntimeError(keyword, "Expected " + name + " to be a method without parameters.");
+  }
+
   @Override
   public Void visitFunctionStmt(Stmt.Function stmt) {
-    NyxFunction function = new NyxFunction(stmt, environment);
+    NyxFunction function = new NyxFunction(stmt, environment, program);
     environment.declare(stmt.name(), function);
     return null;
   }
@@ -171,6 +393,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
   public Void visitWhileStmt(Stmt.While stmt) {
     while (evaluate(stmt.condition()) instanceof Boolean c && c) {
       execute(stmt.body());
+      governor.tick(stmt.keyword());
     }
     return null;
   }
@@ -193,7 +416,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
   public Object visitSetExpr(Expr.Set expr) {
     Object object = evaluate(expr.object());
 
-    if (object instanceof NyxInstance instance) {
+    if (object instanceof NyxContainer instance) {
       Object value = evaluate(expr.value());
       switch (expr.operator().type()) {
         case SET -> {
@@ -205,7 +428,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
               (key, present) -> {
                 checkNumberOperand(expr.operator(), value);
                 checkNumberOperand(expr.operator(), present);
-                return (Double) present + (Double) value;
+                return NyxNumber.add(present, value);
               });
         }
         case SET_SUB -> {
@@ -214,7 +437,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
               (key, present) -> {
                 checkNumberOperand(expr.operator(), value);
                 checkNumberOperand(expr.operator(), present);
-                return (Double) present - (Double) value;
+                return NyxNumber.sub(present, value);
               });
         }
         case SET_MUL -> {
@@ -223,7 +446,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
               (key, present) -> {
                 checkNumberOperand(expr.operator(), value);
                 checkNumberOperand(expr.operator(), present);
-                return (Double) present * (Double) value;
+                return NyxNumber.mul(present, value);
               });
         }
         case SET_DIV -> {
@@ -232,7 +455,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
               (key, present) -> {
                 checkNumberOperand(expr.operator(), value);
                 checkNumberOperand(expr.operator(), present);
-                return (Double) present / (Double) value;
+                return NyxNumber.div(present, value);
               });
         }
         // Unreachable.
@@ -247,13 +470,15 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
   @Override
   public Object visitSuperExpr(Expr.Super expr) {
-    int distance = locals.get(expr);
+    int distance = program.depth(expr);
     NyxClass superclass = (NyxClass) environment.getAt(distance, "super");
     NyxInstance object = (NyxInstance) environment.getAt(distance - 1, "this");
     NyxFunction method = superclass.findMethod(expr.method());
     if (method == null) {
       throw new RuntimeError(expr.method(), "Undefined property '" + expr.method().lexeme() + "'.");
     }
+    stats.methodLookedUp();
+    stats.environmentAllocated();
 
     return method.bind(object);
   }
@@ -280,7 +505,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     return switch (expr.operator().type()) {
       case SUB -> {
         checkNumberOperand(expr.operator(), right);
-        yield -(double) right;
+        yield NyxNumber.negate(right);
       }
       case NOT -> {
         checkBoolOperand(expr.operator(), right);
@@ -300,36 +525,40 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         checkNumberOperand(expr.operator(), left);
         Object right = evaluate(expr.right());
         checkNumberOperand(expr.operator(), right);
-        yield (double) left > (double) right;
+        yield NyxNumber.less(right, left);
       }
       case GREATER_EQUAL -> {
         checkNumberOperand(expr.operator(), left);
         Object right = evaluate(expr.right());
         checkNumberOperand(expr.operator(), right);
-        yield (double) left >= (double) right;
+        yield NyxNumber.lessEqual(right, left);
       }
       case LESS -> {
         checkNumberOperand(expr.operator(), left);
         Object right = evaluate(expr.right());
         checkNumberOperand(expr.operator(), right);
-        yield (double) left < (double) right;
+        yield NyxNumber.less(left, right);
       }
       case LESS_EQUAL -> {
         checkNumberOperand(expr.operator(), left);
         Object right = evaluate(expr.right());
         checkNumberOperand(expr.operator(), right);
-        yield (double) left <= (double) right;
+        yield NyxNumber.lessEqual(left, right);
       }
       case NOT_EQUAL -> !isEqual(left, evaluate(expr.right()));
       case EQUAL -> isEqual(left, evaluate(expr.right()));
       case ADD -> {
         Object right = evaluate(expr.right());
-        if (left instanceof Double l) {
-          if (right instanceof Double r) yield l + r;
+        if (NyxNumber.isNumber(left)) {
+          if (NyxNumber.isNumber(right)) yield NyxNumber.add(left, right);
           else throw new RuntimeError(expr.operator(), "Expected number.");
         }
-        if (left instanceof String l) {
-          yield l + (right != null ? right.toString() : "nil");
+        if (left instanceof String || left instanceof NyxString) {
+          try {
+            yield NyxString.concat(left, stringify(right));
+          } catch (LimitExceeded error) {
+            throw error.getToken() == null ? error.withToken(expr.operator()) : error;
+          }
         }
 
         throw new RuntimeError(expr.operator(), "Expected numbers or strings.");
@@ -338,19 +567,19 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         checkNumberOperand(expr.operator(), left);
         Object right = evaluate(expr.right());
         checkNumberOperand(expr.operator(), right);
-        yield (double) left - (double) right;
+        yield NyxNumber.sub(left, right);
       }
       case MUL -> {
         checkNumberOperand(expr.operator(), left);
         Object right = evaluate(expr.right());
         checkNumberOperand(expr.operator(), right);
-        yield (double) left * (double) right;
+        yield NyxNumber.mul(left, right);
       }
       case DIV -> {
         checkNumberOperand(expr.operator(), left);
         Object right = evaluate(expr.right());
         checkNumberOperand(expr.operator(), right);
-        yield (double) left / (double) right;
+        yield NyxNumber.div(left, right);
       }
       // Unreachable.
       default -> throw new RuntimeError(expr.operator(), "Unexpected token.");
@@ -361,7 +590,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
   public Object visitAssignExpr(Expr.Assign expr) {
     Object value = evaluate(expr.value());
 
-    Integer distance = locals.get(expr);
+    Integer distance = program.depth(expr);
     switch (expr.operator().type()) {
       case SET -> {
         if (distance != null) {
@@ -374,7 +603,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         checkNumberOperand(expr.operator(), value);
         BiFunction<String, Object, Object> func =
             (key, present) -> {
-              if (present instanceof Double l) return l + (Double) value;
+              if (NyxNumber.isNumber(present)) return NyxNumber.add(present, value);
               else throw new RuntimeError(expr.operator(), "Left side is not a number.");
             };
         if (distance != null) {
@@ -387,7 +616,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         checkNumberOperand(expr.operator(), value);
         BiFunction<String, Object, Object> func =
             (key, present) -> {
-              if (present instanceof Double l) return l - (Double) value;
+              if (NyxNumber.isNumber(present)) return NyxNumber.sub(present, value);
               else throw new RuntimeError(expr.operator(), "Left side is not a number.");
             };
         if (distance != null) {
@@ -400,7 +629,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         checkNumberOperand(expr.operator(), value);
         BiFunction<String, Object, Object> func =
             (key, present) -> {
-              if (present instanceof Double l) return l * (Double) value;
+              if (NyxNumber.isNumber(present)) return NyxNumber.mul(present, value);
               else throw new RuntimeError(expr.operator(), "Left side is not a number.");
             };
         if (distance != null) {
@@ -413,7 +642,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         checkNumberOperand(expr.operator(), value);
         BiFunction<String, Object, Object> func =
             (key, present) -> {
-              if (present instanceof Double l) return l / (Double) value;
+              if (NyxNumber.isNumber(present)) return NyxNumber.div(present, value);
               else throw new RuntimeError(expr.operator(), "Left side is not a number.");
             };
         if (distance != null) {
@@ -439,12 +668,25 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
             "Expected " + fun.aritiy() + " arguments, but got " + expr.arguments().size() + ".");
       }
 
+      // Native functions expect plain java strings, so lazy strings are flattened for them.
+      boolean flatten = !(fun instanceof NyxFunction || fun instanceof NyxClass);
       List<Object> arguments = new ArrayList<>();
       for (Expr argument : expr.arguments()) {
-        arguments.add(evaluate(argument));
+        Object value = evaluate(argument);
+        arguments.add(flatten ? NyxString.flatten(value) : value);
       }
 
-      return fun.call(this, arguments);
+      stats.called();
+      governor.tick(expr.paren());
+      callStack.push(frameName(fun), expr.paren().line(), frameLine(fun, expr.paren()));
+      try {
+        return fun.call(this, arguments);
+      } catch (RuntimeError error) {
+        if (error.token == null) throw error.withToken(expr.paren());
+        throw error;
+      } finally {
+        callStack.pop();
+      }
     }
 
     throw new RuntimeError(expr.paren(), "Can only call functions and classes.");
@@ -453,6 +695,9 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
   @Override
   public Object visitGetExpr(Expr.Get expr) {
     Object object = evaluate(expr.object());
+    if (object instanceof NyxInstance instance) {
+      return instance.get(expr.name(), stats);
+    }
     if (object instanceof NyxContainer container) {
       return container.get(expr.name());
     }
@@ -465,8 +710,19 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     return evaluate(expr.expression());
   }
 
+  private static String frameName(NyxCallable fun) {
+    if (fun instanceof NyxFunction function) return function.declaration().name().lexeme();
+    if (fun instanceof NyxClass clazz) return clazz.getName();
+    return fun.toString();
+  }
+
+  private static int frameLine(NyxCallable fun, Token paren) {
+    if (fun instanceof NyxFunction function) return function.declaration().name().line();
+    return paren.line();
+  }
+
   private Object lookUpVariable(Token name, Expr expr) {
-    Integer distance = locals.get(expr);
+    Integer distance = program.depth(expr);
     if (distance != null) {
       return environment.getAt(distance, name.lexeme());
     } else {
@@ -475,7 +731,7 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
   }
 
   private void checkNumberOperand(Token operator, Object operand) {
-    if (!(operand instanceof Double)) {
+    if (!NyxNumber.isNumber(operand)) {
       throw new RuntimeError(operator, "Operand must be a number");
     }
   }
@@ -488,10 +744,20 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
   private boolean isEqual(Object a, Object b) {
     if (a == null) return b == null;
+    a = NyxString.flatten(a);
+    b = NyxString.flatten(b);
+    if (NyxNumber.isNumber(a) && NyxNumber.isNumber(b)) return NyxNumber.equals(a, b);
 
     return a.equals(b);
   }
 
+  public static String stringify(Object value) {
+    if (value == null) return "nil";
+    if (value instanceof Long) return NyxNumber.toString(value);
+
+    return value.toString();
+  }
+
   public Object getReturnValue() {
     // Function did not return (void function), use default value nil instead.
     if (returnValue == null) return null;
@@ -505,4 +771,44 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
   public Environment getEnvironment() {
     return environment;
   }
+
+  public CallStack getCallStack() {
+    return callStack;
+  }
+
+  public InterpreterStats getStats() {
+    return stats;
+  }
+
+  public Governor getGovernor() {
+    return governor;
+  }
+
+  /** Limits the executions of this interpreter, see {@link Governor}. */
+  public void setGovernor(Governor governor) {
+    this.governor = governor;
+  }
+
+  public Output getOutput() {
+    return output;
+  }
+
+  public void setOutput(Output output) {
+    this.output = output;
+  }
+
+  public Input getInput() {
+    return input;
+  }
+
+  public void setInput(Input input) {
+    this.input = input;
+  }
+
+  @Override
+  public void close() {
+    // Fuel drawn by a forked interpreter would be lost for the others drawing from its budget.
+    governor.release();
+    stats.unregister();
+  }
 }
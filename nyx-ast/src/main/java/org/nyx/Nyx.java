@@ -1,71 +1,260 @@
 package org.nyx;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.buildin.NyxModule;
 
 public class Nyx {
-  private final class Ansi {
-    private static final String CSI = "\033[";
-    private static final String RESET = CSI + "0m";
-    private static final String BOLD = CSI + "1m";
-    private static final String RED = CSI + "91m";
-    private static final String BLUE = CSI + "94m";
-  }
-
-  private static boolean hadError = false;
+  // Errors are counted per thread, so programs compiled and run on other threads do not interfere.
+  private static final ThreadLocal<AtomicInteger> errors =
+      ThreadLocal.withInitial(AtomicInteger::new);
 
   public static void main(String[] args) throws IOException {
-    if (args.length > 1) {
-      System.out.println("Usage: vision [script]");
-      System.exit(64);
-    } else if (args.length == 1) {
-      runFile(args[0]);
+    // The client only forwards its arguments, it must not pay for more than it needs.
+    if (args.length >= 1 && args[0].equals("--connect")) {
+      if (args.length < 2) usage();
+      System.exit(DaemonClient.run(Path.of(args[1]), Arrays.copyOfRange(args, 2, args.length)));
+    }
+
+    Options options = null;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException ex) {
+      usage();
+    }
+    if (options.daemon() != null) {
+      if (!options.files().isEmpty()) usage();
+      Daemon.serve(Path.of(options.daemon()));
+      return;
+    }
+    if (options.makeSnapshot() != null ? options.files().isEmpty() : options.files().size() > 1)
+      usage();
+    if (options.watch()) {
+      boolean single = options.files().size() == 1;
+      if (!single || options.makeSnapshot() != null || options.profile() != null) usage();
+      if (options.snapshot() != null) restoreSnapshot(Path.of(options.snapshot()));
+      Watch.run(options.files().get(0), options.governor());
+      return;
+    }
+
+    Interpreter interpreter = new Interpreter();
+    interpreter.setGovernor(options.governor());
+    if (options.profile() != null) profile(interpreter, Path.of(options.profile()));
+    if (options.snapshot() != null) restoreSnapshot(Path.of(options.snapshot()));
+
+    if (options.makeSnapshot() != null) {
+      List<Path> modules = new ArrayList<>();
+      for (String module : options.files()) modules.add(Path.of(module));
+      makeSnapshot(Path.of(options.makeSnapshot()), modules, interpreter);
+    } else if (options.files().size() == 1) {
+      runFile(options.files().get(0), interpreter);
     } else {
-      runPrompt();
+      runPrompt(interpreter);
+    }
+    interpreter.getOutput().flush();
+    Diagnostics.flush();
+
+    if (hadError()) System.exit(65);
+  }
+
+  /** Command line options, the files are the arguments following them. */
+  record Options(
+      String profile,
+      Governor governor,
+      String snapshot,
+      String makeSnapshot,
+      String daemon,
+      boolean watch,
+      List<String> files) {
+    /** Parses the arguments, throws an {@link IllegalArgumentException} for invalid ones. */
+    static Options parse(String[] args) {
+      String profile = null;
+      long fuel = Governor.UNLIMITED;
+      Duration timeout = null;
+      long allocations = Governor.UNLIMITED;
+      String snapshot = null;
+      String makeSnapshot = null;
+      String daemon = null;
+      boolean watch = false;
+      int i = 0;
+      for (; i < args.length && args[i].startsWith("--"); i++) {
+        if (args[i].equals("--watch")) {
+          watch = true;
+          continue;
+        }
+        if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value of " + args[i]);
+        switch (args[i]) {
+          case "--profile" -> profile = args[++i];
+          case "--fuel" -> fuel = Long.parseLong(args[++i]);
+          case "--timeout" -> timeout = Duration.ofMillis(Long.parseLong(args[++i]));
+          case "--max-alloc" -> allocations = Long.parseLong(args[++i]);
+          case "--snapshot" -> snapshot = args[++i];
+          case "--make-snapshot" -> makeSnapshot = args[++i];
+          case "--daemon" -> daemon = args[++i];
+          default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+        }
+      }
+      Governor governor = new Governor(fuel, timeout, allocations);
+      List<String> files = List.of(Arrays.copyOfRange(args, i, args.length));
+      return new Options(profile, governor, snapshot, makeSnapshot, daemon, watch, files);
+    }
+  }
+
+  private static void usage() {
+    System.out.println(
+        "Usage: vision [--profile output] [--fuel steps] [--timeout ms] [--max-alloc bytes]"
+            + " [--snapshot file] [script]\n"
+            + "       vision --watch [--fuel steps] [--timeout ms] [--max-alloc bytes]"
+            + " [--snapshot file] script\n"
+            + "       vision --make-snapshot file module...\n"
+            + "       vision --daemon socket\n"
+            + "       vision --connect socket [--fuel steps] [--timeout ms] [--max-alloc bytes]"
+            + " script");
+    System.exit(64);
+  }
+
+  private static void restoreSnapshot(Path snapshot) {
+    // A missing or outdated snapshot only makes the imports slower.
+    if (!Files.exists(snapshot)) return;
+    try {
+      Snapshot.restore(snapshot);
+    } catch (IOException ex) {
+      System.err.println("Ignoring snapshot: " + ex.getMessage());
+    }
+  }
+
+  // Loads the modules and saves them, unless loading them reported errors.
+  private static void makeSnapshot(Path snapshot, List<Path> modules, Interpreter interpreter)
+      throws IOException {
+    resetErrors();
+    try {
+      interpreter.supervise(
+          () -> {
+            for (Path module : modules) Snapshot.load(module);
+            return null;
+          });
+    } catch (RuntimeError error) {
+      Nyx.error(error.getToken(), error.getMessage());
+    }
+    if (hadError()) return;
+
+    try {
+      Snapshot.write(snapshot, NyxModule.loaded());
+    } catch (IOException ex) {
+      System.err.println("Could not write snapshot: " + ex.getMessage());
+      System.exit(74);
     }
+  }
 
-    if (hadError) System.exit(65);
+  // Samples the interpreter until the process exits, then writes collapsed stacks to the output.
+  private static void profile(Interpreter interpreter, Path output) {
+    Profiler profiler = Profiler.start(interpreter, 1);
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  profiler.stop();
+                  try {
+                    profiler.write(output);
+                  } catch (IOException ex) {
+                    System.err.println("Could not write profile: " + ex.getMessage());
+                  }
+                }));
   }
 
   public static void runFile(String path) throws IOException {
+    runFile(path, new Interpreter());
+  }
+
+  public static void runFile(String path, Interpreter interpreter) throws IOException {
+    resetErrors();
     byte[] bytes = Files.readAllBytes(Paths.get(path));
-    run(path, new String(bytes, Charset.defaultCharset()), new Interpreter());
+    run(path, new String(bytes, Charset.defaultCharset()), interpreter);
+    // Hosts may redirect standard output once the file ran, its output must not wait for the exit.
+    interpreter.getOutput().flush();
+  }
+
+  // Runs the script, it is only compiled again if it changed since it was compiled last.
+  static void runCached(Path file, String script, Interpreter interpreter) throws IOException {
+    resetErrors();
+    Program program;
+    try {
+      program =
+          ProgramCache.load(
+              file, source -> interpreter.supervise(() -> Program.compile(script, source)));
+    } catch (RuntimeError error) {
+      // Imports which failed while resolving, the process keeps serving further runs.
+      Nyx.error(error.getToken(), error.getMessage());
+      Diagnostics.flush();
+      return;
+    }
+    if (program != null) interpreter.interpret(program);
   }
 
   public static void runPrompt() throws IOException {
-    InputStreamReader input = new InputStreamReader(System.in);
-    BufferedReader reader = new BufferedReader(input);
-    Interpreter interpreter = new Interpreter();
+    runPrompt(new Interpreter());
+  }
+
+  public static void runPrompt(Interpreter interpreter) throws IOException {
+    interpreter.getOutput().setLineBuffered(true);
 
     for (; ; ) {
       System.out.print("> ");
-      String line = reader.readLine();
+      String line = interpreter.getInput().readLine();
       if (line == null) {
         System.out.println();
         break;
       }
-      hadError = false;
+      resetErrors();
       run("STDIO", line, interpreter);
     }
   }
 
   private static void run(String filename, String source, Interpreter interpreter) {
-    Scanner scanner = new Scanner(filename, source);
-    List<Token> tokens = scanner.scanTokens();
-    Parser parser = new Parser(tokens);
-    List<Stmt> statements = parser.parse();
+    // Modules are loaded while resolving, so they run under the limits of the interpreter too.
+    Program program =
+        interpreter.supervise(() -> Program.compile(filename, source));
+    if (program != null) interpreter.interpret(program);
+  }
+
+  public static boolean hadError() {
+    return errorCount() > 0;
+  }
 
-    // Stop if there was a syntax error.
-    if (hadError) return;
+  public static int errorCount() {
+    return errors.get().get();
+  }
+
+  public static void resetErrors() {
+    errors.get().set(0);
+  }
 
-    new Resolution(interpreter).resolve(statements);
-    interpreter.interpret(statements);
+  /**
+   * Code for another thread which reports its errors like the calling thread, so errors of a
+   * spawned task count for the script and go to the same stream as its other errors.
+   */
+  public static <T> Supplier<T> inherit(Supplier<T> code) {
+    AtomicInteger count = errors.get();
+    Supplier<T> reporting = Diagnostics.inherit(code);
+    return () -> {
+      AtomicInteger previous = errors.get();
+      errors.set(count);
+      try {
+        return reporting.get();
+      } finally {
+        errors.set(previous);
+      }
+    };
   }
 
   public static void error(String filename, int line, int column, String message) {
@@ -77,33 +266,7 @@ public class Nyx {
   }
 
   private static void report(String filename, int line, int column, String message) {
-    System.err.println(
-        Ansi.RED + Ansi.BOLD + "error: " + Ansi.RESET + Ansi.BOLD + message + Ansi.RESET);
-    System.err.println(Ansi.BLUE + " --> " + Ansi.RESET + filename + ":" + line + ":" + column);
-    if (!filename.equals("STDIO")) {
-      try {
-        int i = 1;
-        var iter = Files.lines(Path.of(filename)).iterator();
-        while (iter.hasNext()) {
-          var content = iter.next();
-          if (i++ == line) {
-            System.err.println(Ansi.BLUE + " | " + Ansi.RESET + content);
-            break;
-          }
-        }
-        System.err.println(
-            Ansi.BLUE
-                + " | "
-                + Ansi.RESET
-                + " ".repeat(column - 1)
-                + Ansi.RED
-                + "^ "
-                + message
-                + Ansi.RESET);
-      } catch (IOException ex) {
-        System.err.println("Could not open source file.");
-      }
-    }
-    hadError = true;
+    Diagnostics.report(filename, line, column, message);
+    errors.get().incrementAndGet();
   }
 }
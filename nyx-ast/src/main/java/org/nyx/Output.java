@@ -0,0 +1,119 @@
+package org.nyx;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Buffered output of {@code print}. Text is collected in a large buffer and written as UTF-8 once
+ * the buffer is full, on {@link #flush()}, before {@code input()} reads, before errors are
+ * reported and when the process exits. In line buffered mode every line is written right away,
+ * standard output is line buffered if it is attached to a console.
+ *
+ * <p>Like {@link java.io.PrintStream} an output never throws, write errors are remembered and can
+ * be checked with {@link #checkError()}. Outputs are safe to use from several threads, lines are
+ * never interleaved.
+ */
+public final class Output {
+  public static final int BUFFER_SIZE = Integer.getInteger("nyx.output.buffer", 1 << 16);
+  private static final String NEWLINE = System.lineSeparator();
+
+  /** Standard output, it always writes to the current {@link System#out}. */
+  public static final Output STDOUT = stdout();
+
+  private static final ThreadLocal<Output> CURRENT = new ThreadLocal<>();
+
+  private final Supplier<OutputStream> stream;
+  private final Writer writer;
+  private final StringBuilder buffer = new StringBuilder();
+  private volatile boolean lineBuffered;
+  private boolean error;
+
+  public Output(OutputStream stream) {
+    this(() -> stream, null);
+  }
+
+  public Output(Writer writer) {
+    this(null, writer);
+  }
+
+  private Output(Supplier<OutputStream> stream, Writer writer) {
+    this.stream = stream;
+    this.writer = writer;
+  }
+
+  private static Output stdout() {
+    Output output = new Output(() -> System.out, null);
+    String lineBuffered = System.getProperty("nyx.output.lineBuffered");
+    output.lineBuffered =
+        lineBuffered != null ? Boolean.parseBoolean(lineBuffered) : System.console() != null;
+    Runtime.getRuntime().addShutdownHook(new Thread(output::flush, "nyx-output"));
+    return output;
+  }
+
+  /** Output of the executions running on this thread, standard output if there are none. */
+  public static Output current() {
+    Output output = CURRENT.get();
+    return output != null ? output : STDOUT;
+  }
+
+  /** Runs the code with this output as the current output of the thread. */
+  public <T> T use(Supplier<T> code) {
+    Output previous = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      return code.get();
+    } finally {
+      if (previous != null) CURRENT.set(previous);
+      else CURRENT.remove();
+    }
+  }
+
+  public synchronized void print(String text) {
+    buffer.append(text);
+    if (buffer.length() >= BUFFER_SIZE) flush();
+  }
+
+  public synchronized void println(String line) {
+    buffer.append(line).append(NEWLINE);
+    if (lineBuffered || buffer.length() >= BUFFER_SIZE) flush();
+  }
+
+  /** Writes the buffered text. */
+  public synchronized void flush() {
+    // Errors reported before the buffered text have to be written first.
+    if (buffer.length() > 0) Diagnostics.flush();
+    try {
+      if (writer != null) {
+        writer.append(buffer);
+        writer.flush();
+      } else {
+        OutputStream out = stream.get();
+        if (buffer.length() > 0) out.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+      }
+    } catch (IOException ex) {
+      error = true;
+    }
+    buffer.setLength(0);
+    // Do not keep the memory of a single huge line.
+    if (buffer.capacity() > 4 * BUFFER_SIZE) buffer.trimToSize();
+  }
+
+  public boolean isLineBuffered() {
+    return lineBuffered;
+  }
+
+  public void setLineBuffered(boolean lineBuffered) {
+    this.lineBuffered = lineBuffered;
+    if (lineBuffered) flush();
+  }
+
+  /** Flushes the output and returns true if any write failed so far. */
+  public synchronized boolean checkError() {
+    flush();
+    return error;
+  }
+}
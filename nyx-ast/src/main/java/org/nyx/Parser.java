@@ -101,6 +101,16 @@ public class Parser {
     return expressionStatement();
   }
 
+  private Stmt forInStatement(Token keyword) {
+    Token name = advance();
+    consume(TokenType.IN, "Expect 'in' after loop variable.");
+    Expr iterable = expression();
+    consume(TokenType.RIGHT_PAREN, "Expect ')' after iterable.");
+    Stmt body = statement();
+
+    return new Stmt.ForIn(keyword, name, iterable, body);
+  }
+
   private Stmt.Block blockStatement() {
     List<Stmt> statements = new ArrayList<>();
 
@@ -137,16 +147,19 @@ public class Parser {
   }
 
   private Stmt whileStatement() {
+    Token keyword = previous();
     consume(TokenType.LEFT_PAREN, "Expect '(' after 'while'.");
     Expr condition = expression();
     consume(TokenType.RIGHT_PAREN, "Expect ')' after condition.");
     Stmt body = statement();
 
-    return new Stmt.While(condition, body);
+    return new Stmt.While(keyword, condition, body);
   }
 
   private Stmt forStatement() {
+    Token keyword = previous();
     consume(TokenType.LEFT_PAREN, "Expect '(' after 'for'.");
+    if (check(TokenType.IDENTIFIER) && checkNext(TokenType.IN)) return forInStatement(keyword);
 
     Stmt initializer;
     if (match(TokenType.SEMICOLON)) {
@@ -175,7 +188,7 @@ public class Parser {
     if (increment != null) {
       body = new Stmt.Block(Arrays.asList(body, new Stmt.Expression(increment)));
     }
-    body = new Stmt.While(condition, body);
+    body = new Stmt.While(keyword, condition, body);
     if (initializer != null) {
       body = new Stmt.Block(Arrays.asList(initializer, body));
     }
@@ -342,6 +355,8 @@ public class Parser {
   }
 
   private Expr primary() {
+    // Advancing stays at the end, the previous token must not be parsed again.
+    if (isAtEnd()) throw error(peek(), "Expect expression.");
     return switch (advance().type()) {
       case FALSE -> Expr.Literal.FALSE;
       case TRUE -> Expr.Literal.TRUE;
@@ -408,6 +423,11 @@ public class Parser {
     return peek().type() == type;
   }
 
+  private boolean checkNext(TokenType type) {
+    if (isAtEnd() || current + 1 >= tokens.size()) return false;
+    return tokens.get(current + 1).type() == type;
+  }
+
   private Token advance() {
     if (!isAtEnd()) current++;
     return previous();
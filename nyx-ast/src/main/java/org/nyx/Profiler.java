@@ -0,0 +1,83 @@
+package org.nyx;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sampling profiler for nyx code. A daemon thread periodically samples the shadow {@link
+ * CallStack} of an interpreter. The samples are written in the collapsed stack format understood
+ * by flame graph tools, one {@code frame;frame;frame count} line per distinct stack.
+ */
+public final class Profiler {
+  private final CallStack stack;
+  private final long intervalMillis;
+  private final Map<String, Long> samples = new HashMap<>();
+  private Thread sampler;
+
+  public Profiler(Interpreter interpreter, long intervalMillis) {
+    this.stack = interpreter.getCallStack();
+    this.intervalMillis = intervalMillis;
+  }
+
+  public static Profiler start(Interpreter interpreter, long intervalMillis) {
+    Profiler profiler = new Profiler(interpreter, intervalMillis);
+    profiler.start();
+    return profiler;
+  }
+
+  public synchronized void start() {
+    if (sampler != null) return;
+
+    sampler = new Thread(this::sample, "nyx-profiler");
+    sampler.setDaemon(true);
+    sampler.start();
+  }
+
+  public void stop() {
+    Thread thread;
+    synchronized (this) {
+      thread = sampler;
+      sampler = null;
+    }
+    if (thread == null) return;
+
+    thread.interrupt();
+    try {
+      thread.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void sample() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Thread.sleep(intervalMillis);
+        String snapshot = stack.snapshot();
+        synchronized (samples) {
+          samples.merge(snapshot, 1L, Long::sum);
+        }
+      }
+    } catch (InterruptedException ex) {
+      // Profiler was stopped.
+    }
+  }
+
+  public void write(Path path) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      synchronized (samples) {
+        for (var entry : samples.entrySet()) {
+          writer.write(entry.getKey());
+          writer.write(' ');
+          writer.write(Long.toString(entry.getValue()));
+          writer.newLine();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package org.nyx;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed and resolved nyx program. A program is immutable once created, so one program can be
+ * executed by any number of interpreters at the same time, each of them with its own state.
+ */
+public final class Program implements Serializable {
+  private static final long serialVersionUID = 1L;
+  public static final Program EMPTY = new Program(List.of(), Map.of());
+
+  private final List<Stmt> statements;
+  private final Map<Expr, Integer> locals;
+
+  private Program(List<Stmt> statements, Map<Expr, Integer> locals) {
+    this.statements = Collections.unmodifiableList(statements);
+    this.locals = Collections.unmodifiableMap(locals);
+  }
+
+  /**
+   * Scans, parses and resolves the source. Errors are reported through {@link Nyx#error}, the
+   * program is only resolved if there was no syntax error.
+   */
+  public static Program compile(String filename, String source) {
+    int errors = Nyx.errorCount();
+    try {
+      List<Token> tokens = new Scanner(filename, source).scanTokens();
+      List<Stmt> statements = new Parser(tokens).parse();
+
+      // Stop if there was a syntax error.
+      if (Nyx.errorCount() != errors) return null;
+
+      return resolve(statements);
+    } finally {
+      Diagnostics.flush();
+    }
+  }
+
+  public static Program resolve(List<Stmt> statements) {
+    Resolution resolution = new Resolution();
+    resolution.resolve(statements);
+    return new Program(statements, resolution.getLocals());
+  }
+
+  public List<Stmt> getStatements() {
+    return statements;
+  }
+
+  /** Number of scopes between the expression and its variable or null if it is a global. */
+  public Integer depth(Expr expr) {
+    return locals.get(expr);
+  }
+}
@@ -0,0 +1,55 @@
+package org.nyx;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Programs compiled from files, kept until the size or modification time of the file changes.
+ * Programs are immutable, so every run and every import of a file can execute the same program. A
+ * daemon serving many runs scans, parses and resolves every script and module once per edit.
+ */
+public final class ProgramCache {
+  private record Entry(long size, long modified, Program program) {}
+
+  private static final Map<Path, Entry> PROGRAMS = new ConcurrentHashMap<>();
+
+  @FunctionalInterface
+  public interface Compiler {
+    /** Compiles the source of the file, returns null if it has errors. */
+    Program compile(String source);
+  }
+
+  private ProgramCache() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns the program of the file, compiling the file if it changed since it was compiled last.
+   * Programs which reported errors while they were compiled are not kept.
+   */
+  public static Program load(Path file, Compiler compiler) throws IOException {
+    Path key = file.toAbsolutePath().normalize();
+    long size = Files.size(key);
+    long modified = Files.getLastModifiedTime(key).toMillis();
+    Entry entry = PROGRAMS.get(key);
+    if (entry != null && entry.size() == size && entry.modified() == modified)
+      return entry.program();
+
+    int errors = Nyx.errorCount();
+    String source = new String(Files.readAllBytes(key), Charset.defaultCharset());
+    Program program = compiler.compile(source);
+    if (program != null && Nyx.errorCount() == errors)
+      PROGRAMS.put(key, new Entry(size, modified, program));
+    else PROGRAMS.remove(key);
+    return program;
+  }
+
+  /** Forgets the program of the file. */
+  public static void invalidate(Path file) {
+    PROGRAMS.remove(file.toAbsolutePath().normalize());
+  }
+}
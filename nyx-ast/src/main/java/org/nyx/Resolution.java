@@ -3,6 +3,7 @@ package org.nyx;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -10,14 +11,15 @@ import org.nyx.buildin.NyxModule;
 
 public class Resolution implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
-  private final Interpreter interpreter;
+  // Number of scopes between an expression and the variable it refers to, keyed by identity.
+  private final Map<Expr, Integer> locals = new IdentityHashMap<>();
 
   // Deque that contains all scopes. A scope is a map that contains all variables
   // mapped to false if it was not initialised and true if it was initialised.
   private final Deque<Map<String, Boolean>> scopes = new ArrayDeque<>();
 
-  public Resolution(Interpreter interpreter) {
-    this.interpreter = interpreter;
+  public Map<Expr, Integer> getLocals() {
+    return locals;
   }
 
   public void resolve(List<Stmt> statements) {
@@ -38,7 +40,7 @@ public class Resolution implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     int i = 0;
     for (var scope : scopes) {
       if (scope.containsKey(name.lexeme())) {
-        interpreter.resolve(expr, i);
+        locals.put(expr, i);
         return;
       } else i++;
     }
@@ -226,6 +228,17 @@ public class Resolution implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     return null;
   }
 
+  @Override
+  public Void visitForInStmt(Stmt.ForIn stmt) {
+    resolve(stmt.iterable());
+    beginScope();
+    declare(stmt.name());
+    define(stmt.name());
+    resolve(stmt.body());
+    endScope();
+    return null;
+  }
+
   @Override
   public Void visitWhileStmt(Stmt.While stmt) {
     resolve(stmt.condition());
@@ -13,7 +13,8 @@ public class Scanner {
   private int column;
 
   public Scanner(String filename, String source) {
-    this.filename = filename;
+    // Tokens of every scan share a name of their own, errors find this source by it.
+    this.filename = Diagnostics.register(filename, source);
     this.source = source;
   }
 
@@ -92,6 +93,7 @@ public class Scanner {
           case "fun" -> TokenType.FUN;
           case "if" -> TokenType.IF;
           case "import" -> TokenType.IMPORT;
+          case "in" -> TokenType.IN;
           case "nil" -> TokenType.NIL;
           case "return" -> TokenType.RETURN;
           case "super" -> TokenType.SUPER;
@@ -113,6 +115,14 @@ public class Scanner {
       advance();
 
       while (isDigit(peek())) advance();
+    } else {
+      // Integral literals use the integer fast path unless they do not fit into a long.
+      try {
+        addToken(TokenType.NUMBER, Long.valueOf(source.substring(start, current)));
+        return;
+      } catch (NumberFormatException ex) {
+        // Fall back to double.
+      }
     }
 
     addToken(TokenType.NUMBER, Double.valueOf(source.substring(start, current)));
@@ -0,0 +1,217 @@
+package org.nyx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.RecordComponent;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.nyx.buildin.NyxGlobals;
+import org.nyx.buildin.NyxModule;
+import org.nyx.buildin.NyxRange;
+import org.nyx.buildin.NyxString;
+
+/**
+ * Heap state of loaded modules, saved to a file so later runs can skip loading them. {@code
+ * --make-snapshot file module...} loads the modules and writes their environments with all
+ * functions, classes and instances reachable from them, {@code --snapshot file} restores them
+ * before the script runs. Imports of restored modules do not scan, parse or execute them again.
+ *
+ * <p>Builtins are written by name and bound to the builtins of the running process on restore.
+ * The snapshot records the size and modification time of every module file, it is ignored as a
+ * whole as soon as one of them changed, or if it was written by another version of nyx. Values
+ * bound to the process like tasks, channels and open files can not be saved. Restoring rejects
+ * every class nyx does not write itself.
+ */
+public final class Snapshot {
+  private static final String MAGIC = "nyx-snapshot";
+  private static final int VERSION = 2;
+
+  // Limits of the object graph, deeper nesting or larger arrays are not written by nyx.
+  private static final long MAX_DEPTH = 10_000;
+  private static final long MAX_ARRAY = 1 << 26;
+  // Classes outside of nyx a snapshot may contain, everything else is rejected.
+  private static final Set<String> JAVA_CLASSES =
+      Set.of(
+          "java.lang.Object",
+          "java.lang.String",
+          "java.lang.Enum",
+          "java.lang.Number",
+          "java.lang.Boolean",
+          "java.lang.Integer",
+          "java.lang.Long",
+          "java.lang.Double",
+          "java.util.ArrayList",
+          "java.util.HashMap",
+          "java.util.IdentityHashMap",
+          "java.util.Map$Entry",
+          "java.util.CollSer",
+          "java.util.Collections$UnmodifiableCollection",
+          "java.util.Collections$UnmodifiableList",
+          "java.util.Collections$UnmodifiableRandomAccessList",
+          "java.util.Collections$UnmodifiableMap",
+          "java.util.Collections$UnmodifiableSet");
+
+  private Snapshot() {
+    throw new UnsupportedOperationException();
+  }
+
+  /** Loads the module file like an import of it would, unless it is loaded already. */
+  public static NyxModule load(Path module) {
+    File file = module.toFile();
+    String name = file.getName().replaceFirst("\\.nyx$", "");
+    return NyxModule.from(new Token(TokenType.IDENTIFIER, file.getPath(), name, null, 1, 1), file);
+  }
+
+  /** Writes the modules, keyed by the absolute paths of their files. */
+  public static void write(Path snapshot, Map<String, NyxModule> modules) throws IOException {
+    Map<String, Stamp> stamps = new HashMap<>();
+    for (String path : modules.keySet()) stamps.put(path, Stamp.of(Path.of(path)));
+
+    // Write next to the snapshot and move it in place, so readers never see half a snapshot.
+    Path partial = snapshot.resolveSibling(snapshot.getFileName() + ".partial");
+    try (HeapWriter out = new HeapWriter(Files.newOutputStream(partial))) {
+      out.writeUTF(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(fingerprint());
+      out.writeObject(stamps);
+      out.writeObject(new HashMap<>(modules));
+    } catch (IOException ex) {
+      Files.deleteIfExists(partial);
+      if (!(ex instanceof NotSerializableException)) throw ex;
+      throw new IOException("Can not save values of " + ex.getMessage() + " in a snapshot.", ex);
+    }
+    Files.move(partial, snapshot, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Restores the modules of the snapshot, returns false without restoring any module if the
+   * snapshot is outdated.
+   */
+  public static boolean restore(Path snapshot) throws IOException {
+    try (HeapReader in = new HeapReader(Files.newInputStream(snapshot))) {
+      if (!MAGIC.equals(in.readUTF()) || in.readInt() != VERSION) return false;
+      if (in.readLong() != fingerprint()) return false;
+
+      @SuppressWarnings("unchecked")
+      Map<String, Stamp> stamps = (Map<String, Stamp>) in.readObject();
+      for (var stamp : stamps.entrySet()) {
+        if (!stamp.getValue().equals(Stamp.of(Path.of(stamp.getKey())))) return false;
+      }
+
+      @SuppressWarnings("unchecked")
+      Map<String, NyxModule> modules = (Map<String, NyxModule>) in.readObject();
+      NyxModule.restore(modules);
+      return true;
+    } catch (InvalidClassException ex) {
+      throw new IOException("Snapshot contains classes nyx does not write: " + ex.getMessage(), ex);
+    } catch (ClassNotFoundException | ClassCastException ex) {
+      throw new IOException("Snapshot is corrupt.", ex);
+    }
+  }
+
+  // Size and modification time of a module file, a missing file has neither.
+  private record Stamp(long size, long modified) implements Serializable {
+    static Stamp of(Path file) {
+      try {
+        return new Stamp(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+      } catch (IOException ex) {
+        return new Stamp(-1, -1);
+      }
+    }
+  }
+
+  /**
+   * Shape of the saved records, records are deserialized by their components without checking the
+   * version of their class. Classes are checked by serialization itself.
+   */
+  private static long fingerprint() {
+    List<Class<?>> records = new ArrayList<>(List.of(Token.class, NyxRange.class));
+    records.addAll(List.of(Stmt.class.getDeclaredClasses()));
+    records.addAll(List.of(Expr.class.getDeclaredClasses()));
+    records.sort(Comparator.comparing(Class::getName));
+
+    long hash = VERSION;
+    for (Class<?> type : records) {
+      if (!type.isRecord()) continue;
+      hash = 31 * hash + type.getName().hashCode();
+      for (RecordComponent component : type.getRecordComponents()) {
+        hash = 31 * hash + component.getName().hashCode();
+        hash = 31 * hash + component.getGenericType().getTypeName().hashCode();
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Snapshots may come from anywhere the user points at, so only classes of nyx, plain values,
+   * the collections nyx uses and arrays of them are deserialized. Other classes could run code
+   * while they are read.
+   */
+  private static ObjectInputFilter.Status filter(ObjectInputFilter.FilterInfo info) {
+    if (info.depth() > MAX_DEPTH || info.arrayLength() > MAX_ARRAY)
+      return ObjectInputFilter.Status.REJECTED;
+    Class<?> type = info.serialClass();
+    if (type == null) return ObjectInputFilter.Status.ALLOWED;
+    while (type.isArray()) type = type.getComponentType();
+    if (type.isPrimitive()
+        || type.getName().startsWith("org.nyx.")
+        || JAVA_CLASSES.contains(type.getName())) return ObjectInputFilter.Status.ALLOWED;
+    return ObjectInputFilter.Status.REJECTED;
+  }
+
+  // Builtin environment and builtin functions are written as references to the running process.
+  private record Builtin(String name) implements Serializable {}
+
+  private static final class HeapWriter extends ObjectOutputStream {
+    private final Map<Object, String> builtins = new IdentityHashMap<>();
+
+    HeapWriter(OutputStream out) throws IOException {
+      super(new BufferedOutputStream(out));
+      enableReplaceObject(true);
+      NyxGlobals.GLOBALS.forEach((name, value) -> builtins.put(value, name));
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) {
+      if (obj == Interpreter.builtins()) return new Builtin(null);
+      if (obj instanceof NyxString string) return string.toString();
+      String name = builtins.get(obj);
+      return name != null ? new Builtin(name) : obj;
+    }
+  }
+
+  private static final class HeapReader extends ObjectInputStream {
+    HeapReader(InputStream in) throws IOException {
+      super(new BufferedInputStream(in));
+      enableResolveObject(true);
+      setObjectInputFilter(Snapshot::filter);
+    }
+
+    @Override
+    protected Object resolveObject(Object obj) throws IOException {
+      if (!(obj instanceof Builtin builtin)) return obj;
+      if (builtin.name() == null) return Interpreter.builtins();
+      Object value = NyxGlobals.GLOBALS.get(builtin.name());
+      if (value == null) throw new IOException("Unknown builtin '" + builtin.name() + "'.");
+      return value;
+    }
+  }
+}
@@ -1,8 +1,9 @@
 package org.nyx;
 
+import java.io.Serializable;
 import java.util.List;
 
-public interface Stmt {
+public interface Stmt extends Serializable {
   interface Visitor<R> {
     R visitBlockStmt(Block stmt);
 
@@ -10,6 +11,8 @@ public interface Stmt {
 
     R visitExpressionStmt(Expression stmt);
 
+    R visitForInStmt(ForIn stmt);
+
     R visitFunctionStmt(Function stmt);
 
     R visitIfStmt(If stmt);
@@ -44,6 +47,13 @@ public interface Stmt {
     }
   }
 
+  record ForIn(Token keyword, Token name, Expr iterable, Stmt body) implements Stmt {
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+      return visitor.visitForInStmt(this);
+    }
+  }
+
   record Function(Token name, List<Token> params, Stmt.Block body) implements Stmt {
     @Override
     public <R> R accept(Visitor<R> visitor) {
@@ -79,7 +89,7 @@ public interface Stmt {
     }
   }
 
-  record While(Expr condition, Stmt body) implements Stmt {
+  record While(Token keyword, Expr condition, Stmt body) implements Stmt {
     @Override
     public <R> R accept(Visitor<R> visitor) {
       return visitor.visitWhileStmt(this);
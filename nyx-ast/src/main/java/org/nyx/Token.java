@@ -1,4 +1,7 @@
 package org.nyx;
 
+import java.io.Serializable;
+
 public record Token(
-    TokenType type, String filename, String lexeme, Object literal, int line, int column) {}
+    TokenType type, String filename, String lexeme, Object literal, int line, int column)
+    implements Serializable {}
@@ -43,6 +43,7 @@ public enum TokenType {
   FOR,
   IF,
   IMPORT,
+  IN,
   NIL,
   RETURN,
   SUPER,
@@ -0,0 +1,114 @@
+package org.nyx;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.nyx.buildin.NyxModule;
+
+/**
+ * Runs a script again whenever it or one of its modules changes, {@code --watch script}. The
+ * directories of the script and of every imported file are watched. Imports record which file
+ * imports which module, so a change only forgets the changed module and the modules importing it,
+ * directly or through other modules. Every other module stays loaded and is not executed again,
+ * and the {@link ProgramCache} only compiles the files which changed.
+ *
+ * <p>Every run starts with a fresh interpreter and the full limits of the governor. A new module
+ * file created next to a watched file also starts a run, it may fix an import which failed. A run
+ * which fails in any way is reported and the files are watched again.
+ */
+public final class Watch {
+  // Editors save in several steps, wait for them to settle before running again.
+  private static final long SETTLE_MILLIS = 50;
+
+  private Watch() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static void run(String script, Governor governor) throws IOException {
+    Path file = Path.of(script).toAbsolutePath().normalize();
+    try (WatchService service = file.getFileSystem().newWatchService()) {
+      Set<Path> directories = new HashSet<>();
+      for (; ; ) {
+        run(file, script, governor.renew());
+
+        Set<Path> files = new HashSet<>();
+        files.add(file);
+        for (String module : NyxModule.imported()) files.add(Path.of(module));
+        for (String module : NyxModule.loaded().keySet()) files.add(Path.of(module));
+        for (Path watched : files) {
+          Path directory = watched.getParent();
+          if (directory != null && directories.add(directory))
+            directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        }
+
+        Set<Path> changed = changes(service, files);
+        Set<Path> invalidated = new HashSet<>();
+        for (Path path : changed) {
+          ProgramCache.invalidate(path);
+          for (String module : NyxModule.invalidate(path)) invalidated.add(Path.of(module));
+        }
+        invalidated.remove(file);
+
+        StringBuilder message = new StringBuilder("Changed ").append(names(changed));
+        if (!invalidated.isEmpty()) message.append(", reloading ").append(names(invalidated));
+        System.err.println(message.append('.'));
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void run(Path file, String script, Governor governor) {
+    try (Interpreter interpreter = new Interpreter()) {
+      interpreter.setGovernor(governor);
+      Nyx.runCached(file, script, interpreter);
+      interpreter.getOutput().flush();
+    } catch (IOException ex) {
+      System.err.println("Could not read script " + script + ".");
+    } catch (Throwable ex) {
+      // A script saved halfway may break the interpreter, the next save gets another run.
+      System.err.println("Internal error: " + ex);
+    }
+    Diagnostics.flush();
+  }
+
+  // Waits until watched files change or module files are created, returns the changed files.
+  private static Set<Path> changes(WatchService service, Set<Path> files)
+      throws InterruptedException {
+    Set<Path> changed = new HashSet<>();
+    WatchKey key = service.take();
+    while (key != null) {
+      Path directory = (Path) key.watchable();
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (!(event.context() instanceof Path name)) continue;
+        Path path = directory.resolve(name).normalize();
+        boolean created = event.kind() == ENTRY_CREATE && name.toString().endsWith(".nyx");
+        if (created || files.contains(path)) changed.add(path);
+      }
+      key.reset();
+      if (changed.isEmpty()) key = service.take();
+      else key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    return changed;
+  }
+
+  // Paths relative to the working directory, sorted and separated by commas.
+  private static String names(Set<Path> paths) {
+    Path directory = Path.of("").toAbsolutePath();
+    return paths.stream()
+        .map(path -> path.startsWith(directory) ? directory.relativize(path) : path)
+        .map(Path::toString)
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+}
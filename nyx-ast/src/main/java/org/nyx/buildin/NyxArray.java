@@ -0,0 +1,232 @@
+package org.nyx.buildin;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import org.nyx.Governor;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Growable array created by {@code array(length)}. Scripts use {@code get(i)}, {@code set(i, v)},
+ * {@code push(v)} and {@code length}, {@code for (x in array)} iterates the elements.
+ *
+ * <p>As long as every element is a number the elements are stored unboxed in a {@code double[]}.
+ * Storing anything else, or an integer a double can not represent exactly, switches the array to
+ * an {@code Object[]} for good. Integral numbers are read back as integers, so both storages look
+ * the same to scripts.
+ */
+public final class NyxArray implements NyxContainer, NyxIterable, Serializable {
+  private static final long serialVersionUID = 1L;
+  private static final long EXACT = 1L << 53;
+
+  private double[] numbers;
+  private Object[] objects;
+  private int length;
+
+  // Created again when the array is deserialized.
+  private transient NyxNative get;
+  private transient NyxNative set;
+  private transient NyxNative push;
+
+  /** Array of the given length filled with zeros. */
+  public NyxArray(int length) {
+    Governor.reserve(8L * length);
+    this.numbers = new double[Math.max(length, 8)];
+    this.length = length;
+    methods();
+  }
+
+  public NyxArray(double[] numbers) {
+    this.numbers = numbers;
+    this.length = numbers.length;
+    methods();
+  }
+
+  private void methods() {
+    get = new NyxNative(1, (interpreter, args) -> get(index(args.get(0), length())));
+    set =
+        new NyxNative(
+            2,
+            (interpreter, args) -> {
+              set(index(args.get(0), length()), args.get(1));
+              return args.get(1);
+            });
+    push =
+        new NyxNative(
+            1,
+            (interpreter, args) -> {
+              push(args.get(0));
+              return args.get(0);
+            });
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    methods();
+  }
+
+  public synchronized int length() {
+    return length;
+  }
+
+  public synchronized boolean isNumeric() {
+    return objects == null;
+  }
+
+  public synchronized Object get(int index) {
+    if (objects != null) return objects[index];
+    return number(numbers[index]);
+  }
+
+  public synchronized void set(int index, Object value) {
+    if (objects == null) {
+      if (fits(value)) {
+        numbers[index] = NyxNumber.toDouble(value);
+        return;
+      }
+      box();
+    }
+    objects[index] = value;
+  }
+
+  public synchronized void push(Object value) {
+    if (objects == null) {
+      if (fits(value)) {
+        if (length == numbers.length) numbers = Arrays.copyOf(numbers, grow(length));
+        numbers[length++] = NyxNumber.toDouble(value);
+        return;
+      }
+      box();
+    }
+    if (length == objects.length) objects = Arrays.copyOf(objects, grow(length));
+    objects[length++] = value;
+  }
+
+  /** Iterates the elements by index, so elements pushed during the iteration are included. */
+  @Override
+  public Iterator<Object> iterator(Interpreter interpreter) {
+    return new Iterator<>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < length();
+      }
+
+      @Override
+      public Object next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return get(next++);
+      }
+    };
+  }
+
+  /** Array of the values, numeric if all of them are numbers. */
+  public static NyxArray of(Object[] values) {
+    NyxArray array = new NyxArray(0);
+    for (Object value : values) array.push(value);
+    return array;
+  }
+
+  /** Copy of the elements, integral numbers are boxed as integers. */
+  public synchronized Object[] toArray() {
+    if (objects != null) return Arrays.copyOf(objects, length);
+    Object[] values = new Object[length];
+    for (int i = 0; i < length; i++) values[i] = number(numbers[i]);
+    return values;
+  }
+
+  /** Unboxed elements without copying them, or null if the array is not numeric. */
+  synchronized Numbers numbers() {
+    return objects == null ? new Numbers(numbers, length) : null;
+  }
+
+  /** The first {@code length} values are the elements, callers must not write to them. */
+  record Numbers(double[] values, int length) {}
+
+  /** Copy of the elements, only valid while the array is numeric. */
+  public synchronized double[] toDoubleArray() {
+    if (objects != null) throw new IllegalStateException("Array is not numeric.");
+    return Arrays.copyOf(numbers, length);
+  }
+
+  // Only numbers which survive the round trip through a double stay unboxed.
+  private static boolean fits(Object value) {
+    if (value instanceof Double) return true;
+    return value instanceof Long l && -EXACT <= l && l <= EXACT;
+  }
+
+  // Integral values are read back as integers like the scanner produces them.
+  static Object number(double value) {
+    long l = (long) value;
+    if (l == value && -EXACT <= l && l <= EXACT && !(l == 0 && 1 / value < 0)) return l;
+    return value;
+  }
+
+  private void box() {
+    // The references and the boxed numbers.
+    Governor.reserve(24L * numbers.length);
+    objects = new Object[numbers.length];
+    for (int i = 0; i < length; i++) objects[i] = number(numbers[i]);
+    numbers = null;
+  }
+
+  private static int grow(int length) {
+    int capacity = length + (length >> 1) + 1;
+    if (capacity < 0) throw new RuntimeError("Array is too large.");
+    Governor.reserve(8L * capacity);
+    return capacity;
+  }
+
+  static int index(Object index, int length) {
+    if (!NyxNumber.isNumber(index)) throw new RuntimeError("Array index must be a number.");
+    double value = NyxNumber.toDouble(index);
+    if (value != Math.floor(value)) throw new RuntimeError("Array index must be an integer.");
+    if (value < 0 || value >= length)
+      throw new RuntimeError(
+          "Array index "
+              + Interpreter.stringify(index)
+              + " out of bounds for length "
+              + Interpreter.stringify((long) length)
+              + ".");
+    return (int) value;
+  }
+
+  @Override
+  public Object get(Token name) {
+    return switch (name.lexeme()) {
+      case "get" -> get;
+      case "set" -> set;
+      case "push" -> push;
+      case "length" -> (long) length();
+      default -> throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+    };
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of an array, use set(index, value).");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of an array, use set(index, value).");
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < length; i++) {
+      if (i > 0) builder.append(", ");
+      Object element = get(i);
+      builder.append(element == this ? "[...]" : Interpreter.stringify(element));
+    }
+    return builder.append(']').toString();
+  }
+}
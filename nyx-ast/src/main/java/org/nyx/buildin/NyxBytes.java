@@ -0,0 +1,227 @@
+package org.nyx.buildin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import org.nyx.Governor;
+import org.nyx.Input;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Bytes of a file created by {@code readBytes(path)} or {@code mmap(path)}, {@code for (b in
+ * bytes)} iterates them as numbers from 0 to 255.
+ *
+ * <p>{@code readBytes} streams the file through one buffer on every iteration and only knows its
+ * {@code length}. {@code mmap} maps the file read-only into memory, scripts can also read single
+ * bytes with {@code get(i)} and decode ranges as UTF-8 with {@code text(from, to)}. The operating
+ * system pages mapped files in and out on demand, so neither of them holds the file in the heap.
+ * Files larger than a single mapping are mapped in segments.
+ */
+public final class NyxBytes implements NyxContainer, NyxIterable {
+  // Segments of 1 GiB, a mapped buffer is indexed by int.
+  private static final int SEGMENT_BITS = 30;
+  private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+  private final Path file;
+  private final long length;
+  // Null for streamed bytes.
+  private final MappedByteBuffer[] segments;
+
+  private final NyxNative get =
+      new NyxNative(1, (interpreter, args) -> (long) get(offset(args.get(0), length() - 1)));
+  private final NyxNative text =
+      new NyxNative(
+          2,
+          (interpreter, args) -> {
+            long to = offset(args.get(1), length());
+            return text(offset(args.get(0), to), to);
+          });
+
+  private NyxBytes(Path file, long length, MappedByteBuffer[] segments) {
+    this.file = file;
+    this.length = length;
+    this.segments = segments;
+  }
+
+  public static NyxBytes read(Object path) {
+    Path file = NyxFiles.file(path);
+    try (FileChannel channel = FileChannel.open(file)) {
+      return new NyxBytes(file, channel.size(), null);
+    } catch (IOException ex) {
+      throw NyxFiles.error(file, ex);
+    }
+  }
+
+  public static NyxBytes map(Object path) {
+    Path file = NyxFiles.file(path);
+    // The mapping stays valid after the channel is closed.
+    try (FileChannel channel = FileChannel.open(file)) {
+      long length = channel.size();
+      int count = (int) ((length + SEGMENT_MASK) >>> SEGMENT_BITS);
+      MappedByteBuffer[] segments = new MappedByteBuffer[count];
+      for (int s = 0; s < segments.length; s++) {
+        long position = (long) s << SEGMENT_BITS;
+        long size = Math.min(length - position, 1L << SEGMENT_BITS);
+        segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+      }
+      return new NyxBytes(file, length, segments);
+    } catch (IOException ex) {
+      throw NyxFiles.error(file, ex);
+    }
+  }
+
+  public long length() {
+    return length;
+  }
+
+  public boolean isMapped() {
+    return segments != null;
+  }
+
+  /** Byte at the offset, only valid for mapped files. */
+  public int get(long offset) {
+    return segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK)) & 0xFF;
+  }
+
+  /** Decodes the bytes from {@code from} up to but excluding {@code to} as UTF-8. */
+  public String text(long from, long to) {
+    if (to - from > Integer.MAX_VALUE - 8) throw new RuntimeError("Text is too large.");
+    // The bytes and the decoded string.
+    Governor.reserve(3 * (to - from));
+    byte[] bytes = new byte[(int) (to - from)];
+    int written = 0;
+    while (written < bytes.length) {
+      long offset = from + written;
+      ByteBuffer segment = segments[(int) (offset >>> SEGMENT_BITS)].duplicate();
+      segment.position((int) (offset & SEGMENT_MASK));
+      int count = Math.min(segment.remaining(), bytes.length - written);
+      segment.get(bytes, written, count);
+      written += count;
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // Offsets are integers from zero up to and including the bound.
+  private long offset(Object value, long bound) {
+    if (!NyxNumber.isNumber(value)) throw new RuntimeError("Byte offset must be a number.");
+    double offset = NyxNumber.toDouble(value);
+    if (offset != Math.floor(offset)) throw new RuntimeError("Byte offset must be an integer.");
+    if (offset < 0 || offset > bound)
+      throw new RuntimeError(
+          "Byte offset "
+              + Interpreter.stringify(value)
+              + " out of bounds for length "
+              + Interpreter.stringify(length)
+              + ".");
+    return (long) offset;
+  }
+
+  @Override
+  public Iterator<Object> iterator(Interpreter interpreter) {
+    if (segments != null) {
+      return new Iterator<>() {
+        private long next;
+
+        @Override
+        public boolean hasNext() {
+          return next < length;
+        }
+
+        @Override
+        public Object next() {
+          if (!hasNext()) throw new NoSuchElementException();
+          return (long) get(next++);
+        }
+      };
+    }
+
+    try {
+      return new Stream(FileChannel.open(file));
+    } catch (IOException ex) {
+      throw NyxFiles.error(file, ex);
+    }
+  }
+
+  // Reads the file through a direct buffer, the channel is closed as soon as the end is reached.
+  private final class Stream implements Iterator<Object>, Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(Input.BUFFER_SIZE).flip();
+    private boolean done;
+
+    Stream(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (buffer.hasRemaining()) return true;
+      if (done) return false;
+      try {
+        buffer.clear();
+        int read = 0;
+        while (read == 0) read = channel.read(buffer);
+        buffer.flip();
+        if (read < 0) close();
+      } catch (IOException ex) {
+        close();
+        throw NyxFiles.error(file, ex);
+      }
+      return buffer.hasRemaining();
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      return (long) (buffer.get() & 0xFF);
+    }
+
+    @Override
+    public void close() {
+      done = true;
+      try {
+        channel.close();
+      } catch (IOException ex) {
+        // The file was only read, nothing can be lost.
+      }
+    }
+  }
+
+  @Override
+  public Object get(Token name) {
+    return switch (name.lexeme()) {
+      case "length" -> length;
+      case "get" -> mapped(name, get);
+      case "text" -> mapped(name, text);
+      default -> throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+    };
+  }
+
+  private NyxNative mapped(Token name, NyxNative method) {
+    if (segments != null) return method;
+    throw new RuntimeError(name, "Can only access bytes of mapped files, use mmap(path).");
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of bytes.");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of bytes.");
+  }
+
+  @Override
+  public String toString() {
+    return (segments != null ? "<mmap " : "<bytes ") + file + ">";
+  }
+}
@@ -0,0 +1,120 @@
+package org.nyx.buildin;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import org.nyx.Governor;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Bounded channel between tasks, created by {@code channel(n)}. {@code send(value)} blocks while
+ * the channel is full and {@code receive()} blocks while it is empty. After {@code close()} sending
+ * fails and receiving drains the remaining values and then returns nil. Blocked tasks still stop
+ * when their execution is cancelled or exceeds its deadline.
+ */
+public final class NyxChannel implements NyxContainer {
+  private final Object[] buffer;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private int head;
+  private int count;
+  private boolean closed;
+
+  public NyxChannel(int capacity) {
+    this.buffer = new Object[capacity];
+  }
+
+  public void send(Object value, Governor governor) {
+    // The receiver may call functions sent to it.
+    NyxTask.share(value);
+    lock.lock();
+    try {
+      while (count == buffer.length && !closed) {
+        governor.checkpoint();
+        notFull.await(Governor.WAIT_MILLIS, TimeUnit.MILLISECONDS);
+      }
+      if (closed) throw new RuntimeError("Can not send on a closed channel.");
+
+      buffer[(head + count) % buffer.length] = value;
+      count++;
+      notEmpty.signal();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeError("Interrupted while sending.");
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Object receive(Governor governor) {
+    lock.lock();
+    try {
+      while (count == 0 && !closed) {
+        governor.checkpoint();
+        notEmpty.await(Governor.WAIT_MILLIS, TimeUnit.MILLISECONDS);
+      }
+      if (count == 0) return null;
+
+      Object value = buffer[head];
+      buffer[head] = null;
+      head = (head + 1) % buffer.length;
+      count--;
+      notFull.signal();
+      return value;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeError("Interrupted while receiving.");
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object get(Token name) {
+    return switch (name.lexeme()) {
+      case "send" -> new NyxNative(
+          1,
+          (interpreter, args) -> {
+            send(args.get(0), interpreter.getGovernor());
+            return null;
+          });
+      case "receive" -> new NyxNative(0, (interpreter, args) -> receive(interpreter.getGovernor()));
+      case "close" -> new NyxNative(
+          0,
+          (interpreter, args) -> {
+            close();
+            return null;
+          });
+      default -> throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+    };
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of a channel.");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of a channel.");
+  }
+
+  @Override
+  public String toString() {
+    return "<channel " + buffer.length + ">";
+  }
+}
@@ -1,11 +1,14 @@
 package org.nyx.buildin;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import org.nyx.Interpreter;
 import org.nyx.Token;
 
-public final class NyxClass implements NyxCallable {
+public final class NyxClass implements NyxCallable, Serializable {
+  private static final long serialVersionUID = 1L;
+
   private final Map<String, NyxFunction> methods;
   private final NyxFunction initializer;
   private final NyxClass superclass;
@@ -28,10 +31,16 @@ public final class NyxClass implements NyxCallable {
     throw new Interpreter.RuntimeError(name, "Could not find method '" + name.lexeme() + "'.");
   }
 
+  public boolean hasMethod(String name) {
+    return methods.containsKey(name) || superclass != null && superclass.hasMethod(name);
+  }
+
   @Override
   public Object call(Interpreter interpreter, List<Object> args) {
     NyxInstance instance = new NyxInstance(this);
+    interpreter.getStats().instanceCreated();
     if (initializer != null) {
+      interpreter.getStats().environmentAllocated();
       if (initializer.bind(instance).call(interpreter, args) != null) {
         throw new Interpreter.RuntimeError(
             initializer.declaration().name(), "Did not expect non 'nil' return inside init.");
@@ -0,0 +1,288 @@
+package org.nyx.buildin;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.BiFunction;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Hash table created by {@code dict()}. Scripts use {@code get(key)}, {@code set(key, value)},
+ * {@code has(key)}, {@code remove(key)}, {@code keys()}, {@code values()}, {@code clear()} and
+ * {@code size}. Missing keys read as nil, {@code for (key in dict)} iterates the keys in insertion
+ * order.
+ *
+ * <p>Entries are appended to parallel arrays in insertion order, an open addressing index with
+ * linear probing maps hashes to entries. Numeric keys are stored unboxed as doubles and compared
+ * like {@code ==} compares numbers, integers beyond 2^53 are compared exactly. String keys are
+ * compared by content, every other key by identity. The hash of every entry is kept, so growing
+ * the table never hashes a key again. Removed entries leave a tombstone until the next resize.
+ */
+public final class NyxDict implements NyxContainer, NyxIterable, Serializable {
+  private static final long serialVersionUID = 1L;
+  private static final long EXACT = 1L << 53;
+  private static final Object REMOVED = new Object();
+
+  // Index slots hold the entry plus one, zero marks a free slot.
+  private int[] index = new int[16];
+  private int[] hashes = new int[8];
+  private double[] numbers = new double[8];
+  // Null for numeric keys.
+  private Object[] keys = new Object[8];
+  private Object[] values = new Object[8];
+  private int entries;
+  private int size;
+
+  // Created again when the dict is deserialized.
+  private transient NyxNative get;
+  private transient NyxNative set;
+  private transient NyxNative has;
+  private transient NyxNative remove;
+  private transient NyxNative keysNative;
+  private transient NyxNative valuesNative;
+  private transient NyxNative clear;
+
+  public NyxDict() {
+    methods();
+  }
+
+  private void methods() {
+    get = new NyxNative(1, (interpreter, args) -> get(key(args.get(0))));
+    set =
+        new NyxNative(
+            2,
+            (interpreter, args) -> {
+              put(key(args.get(0)), args.get(1));
+              return args.get(1);
+            });
+    has = new NyxNative(1, (interpreter, args) -> containsKey(key(args.get(0))));
+    remove = new NyxNative(1, (interpreter, args) -> remove(key(args.get(0))));
+    keysNative = new NyxNative(0, (interpreter, args) -> keys());
+    valuesNative = new NyxNative(0, (interpreter, args) -> values());
+    clear =
+        new NyxNative(
+            0,
+            (interpreter, args) -> {
+              clear();
+              return null;
+            });
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public synchronized Object get(Object key) {
+    int entry = find(key);
+    return entry >= 0 ? values[entry] : null;
+  }
+
+  public synchronized boolean containsKey(Object key) {
+    return find(key) >= 0;
+  }
+
+  public synchronized void put(Object key, Object value) {
+    int entry = find(key);
+    if (entry >= 0) {
+      values[entry] = value;
+      return;
+    }
+
+    if (entries == keys.length) resize();
+    entry = entries++;
+    if (isNumber(key)) {
+      double number = NyxNumber.toDouble(key);
+      hashes[entry] = hash(Double.doubleToLongBits(number));
+      numbers[entry] = number;
+    } else {
+      hashes[entry] = hash(key.hashCode());
+      keys[entry] = key;
+    }
+    values[entry] = value;
+    insert(entry);
+    size++;
+  }
+
+  /** Removes the key and returns its value, or nil if it was missing. */
+  public synchronized Object remove(Object key) {
+    int entry = find(key);
+    if (entry < 0) return null;
+
+    Object value = values[entry];
+    keys[entry] = REMOVED;
+    values[entry] = null;
+    size--;
+    return value;
+  }
+
+  public synchronized void clear() {
+    Arrays.fill(index, 0);
+    Arrays.fill(keys, 0, entries, null);
+    Arrays.fill(values, 0, entries, null);
+    entries = 0;
+    size = 0;
+  }
+
+  /** Keys in insertion order. */
+  public synchronized NyxArray keys() {
+    NyxArray array = new NyxArray(0);
+    for (int i = 0; i < entries; i++) {
+      if (keys[i] != REMOVED) array.push(keys[i] == null ? NyxArray.number(numbers[i]) : keys[i]);
+    }
+    return array;
+  }
+
+  /** Values in insertion order. */
+  public synchronized NyxArray values() {
+    NyxArray array = new NyxArray(0);
+    for (int i = 0; i < entries; i++) {
+      if (keys[i] != REMOVED) array.push(values[i]);
+    }
+    return array;
+  }
+
+  /** Iterates the keys the dict had when the iteration started. */
+  @Override
+  public Iterator<Object> iterator(Interpreter interpreter) {
+    return keys().iterator(interpreter);
+  }
+
+  // Numbers which a double represents exactly take the unboxed path.
+  private static boolean isNumber(Object key) {
+    if (key instanceof Double) return true;
+    return key instanceof Long l && -EXACT <= l && l <= EXACT;
+  }
+
+  private static Object key(Object key) {
+    if (key == null) throw new RuntimeError("Dict keys must not be nil.");
+    return key;
+  }
+
+  private int find(Object key) {
+    int mask = index.length - 1;
+    if (isNumber(key)) {
+      long bits = Double.doubleToLongBits(NyxNumber.toDouble(key));
+      int hash = hash(bits);
+      for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+        int entry = index[slot] - 1;
+        if (entry < 0) return -1;
+        if (hashes[entry] == hash
+            && keys[entry] == null
+            && Double.doubleToLongBits(numbers[entry]) == bits) return entry;
+      }
+    }
+
+    int hash = hash(key.hashCode());
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int entry = index[slot] - 1;
+      if (entry < 0) return -1;
+      if (hashes[entry] == hash && keys[entry] != null && key.equals(keys[entry])) return entry;
+    }
+  }
+
+  private void insert(int entry) {
+    int mask = index.length - 1;
+    int slot = hashes[entry] & mask;
+    while (index[slot] != 0) slot = (slot + 1) & mask;
+    index[slot] = entry + 1;
+  }
+
+  // Drops tombstones and grows the entries if they are still more than half full.
+  private void resize() {
+    int capacity = size >= keys.length / 2 ? keys.length * 2 : keys.length;
+    if (capacity < 0) throw new RuntimeError("Dict is too large.");
+
+    int[] hashes = new int[capacity];
+    double[] numbers = new double[capacity];
+    Object[] keys = new Object[capacity];
+    Object[] values = new Object[capacity];
+    int live = 0;
+    for (int i = 0; i < entries; i++) {
+      if (this.keys[i] == REMOVED) continue;
+      hashes[live] = this.hashes[i];
+      numbers[live] = this.numbers[i];
+      keys[live] = this.keys[i];
+      values[live] = this.values[i];
+      live++;
+    }
+    this.hashes = hashes;
+    this.numbers = numbers;
+    this.keys = keys;
+    this.values = values;
+    this.entries = live;
+
+    // The index stays at most half full.
+    index = new int[capacity * 2];
+    for (int i = 0; i < live; i++) insert(i);
+  }
+
+  // Tombstones are dropped, they are not serializable.
+  private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+    if (entries != size) resize();
+    out.defaultWriteObject();
+  }
+
+  // Keys compared by identity get new hashes in this process, so the index is built again.
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    for (int i = 0; i < entries; i++) {
+      if (keys[i] != null) hashes[i] = hash(keys[i].hashCode());
+    }
+    Arrays.fill(index, 0);
+    for (int i = 0; i < entries; i++) insert(i);
+    methods();
+  }
+
+  private static int hash(long bits) {
+    return hash((int) (bits ^ (bits >>> 32)));
+  }
+
+  // Spreads the bits, so keys like consecutive integers do not cluster in the index.
+  private static int hash(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  @Override
+  public Object get(Token name) {
+    return switch (name.lexeme()) {
+      case "get" -> get;
+      case "set" -> set;
+      case "has" -> has;
+      case "remove" -> remove;
+      case "keys" -> keysNative;
+      case "values" -> valuesNative;
+      case "clear" -> clear;
+      case "size" -> (long) size();
+      default -> throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+    };
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of a dict, use set(key, value).");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of a dict, use set(key, value).");
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    for (int i = 0; i < entries; i++) {
+      if (keys[i] == REMOVED) continue;
+      if (builder.length() > 1) builder.append(", ");
+      Object key = keys[i] == null ? NyxArray.number(numbers[i]) : keys[i];
+      builder.append(key == this ? "{...}" : Interpreter.stringify(key)).append(": ");
+      builder.append(values[i] == this ? "{...}" : Interpreter.stringify(values[i]));
+    }
+    return builder.append('}').toString();
+  }
+}
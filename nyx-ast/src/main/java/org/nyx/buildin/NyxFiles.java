@@ -0,0 +1,49 @@
+package org.nyx.buildin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import org.nyx.Interpreter.RuntimeError;
+
+/** File access of imports and the {@code lines}, {@code readBytes} and {@code mmap} builtins. */
+public final class NyxFiles {
+  // Null for the working directory of the process.
+  private static volatile Path directory;
+
+  private NyxFiles() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Sets the directory relative paths of scripts are resolved against, e.g. the working directory
+   * of the client a daemon runs the script for. Null restores the working directory.
+   */
+  public static void setDirectory(Path directory) {
+    NyxFiles.directory = directory;
+  }
+
+  public static Path resolve(String path) {
+    Path directory = NyxFiles.directory;
+    return directory != null ? directory.resolve(path) : Path.of(path);
+  }
+
+  /** Regular file at the path, relative paths are resolved against the script directory. */
+  static Path file(Object path) {
+    if (!(path instanceof String name)) throw new RuntimeError("File path must be a string.");
+    try {
+      Path file = resolve(name);
+      if (Files.isRegularFile(file)) return file;
+    } catch (InvalidPathException ex) {
+      throw new RuntimeError("Invalid file path '" + name + "'.");
+    }
+    throw new RuntimeError("Could not find file '" + name + "'.");
+  }
+
+  static RuntimeError error(Path file, IOException ex) {
+    if (ex instanceof NoSuchFileException)
+      return new RuntimeError("Could not find file '" + file + "'.");
+    return new RuntimeError("Could not read file '" + file + "': " + ex.getMessage());
+  }
+}
@@ -1,25 +1,73 @@
 package org.nyx.buildin;
 
+import java.io.Serializable;
 import java.util.List;
 import org.nyx.Environment;
 import org.nyx.Interpreter;
+import org.nyx.Program;
 import org.nyx.Stmt;
+import org.nyx.jfr.NyxFunctionCallEvent;
+
+/**
+ * Function declared in nyx with the environment it closes over. It is a class and not a record,
+ * because closures refer back to their functions and records can not be deserialized in cycles.
+ */
+public final class NyxFunction implements NyxCallable, Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final Stmt.Function declaration;
+  private final Environment closure;
+  private final Program program;
+
+  public NyxFunction(Stmt.Function declaration, Environment closure, Program program) {
+    this.declaration = declaration;
+    this.closure = closure;
+    this.program = program;
+  }
+
+  public Stmt.Function declaration() {
+    return declaration;
+  }
+
+  public Environment closure() {
+    return closure;
+  }
+
+  public Program program() {
+    return program;
+  }
 
-public record NyxFunction(Stmt.Function declaration, Environment closure) implements NyxCallable {
   public NyxFunction bind(NyxInstance instance) {
     Environment environment = new Environment(closure);
     environment.declare("this", instance);
-    return new NyxFunction(declaration, environment);
+    return new NyxFunction(declaration, environment, program);
   }
 
   @Override
   public Object call(Interpreter interpreter, List<Object> arguments) {
+    interpreter.getStats().environmentAllocated();
     Environment environment = new Environment(closure);
     for (int i = 0; i < declaration.params().size(); i++) {
       environment.declare(declaration.params().get(i), arguments.get(i));
     }
 
-    interpreter.execute(declaration.body(), environment);
+    NyxFunctionCallEvent event = new NyxFunctionCallEvent();
+    event.begin();
+    boolean returned = false;
+    try {
+      interpreter.execute(declaration.body(), environment, program);
+      returned = true;
+    } finally {
+      // Slow calls ending with an error or an exceeded limit are recorded as well.
+      event.end();
+      if (event.shouldCommit()) {
+        event.function = declaration.name().lexeme();
+        event.file = declaration.name().filename();
+        event.line = declaration.name().line();
+        event.failed = !returned;
+        event.commit();
+      }
+    }
     return interpreter.getReturnValue();
   }
 
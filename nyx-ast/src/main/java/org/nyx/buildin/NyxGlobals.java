@@ -1,9 +1,10 @@
 package org.nyx.buildin;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
 
 public final class NyxGlobals {
   private NyxGlobals() {
@@ -11,8 +12,9 @@ public final class NyxGlobals {
   }
 
   public static Map<String, Object> GLOBALS =
-      Map.of(
-          "time",
+      Map.ofEntries(
+          Map.entry(
+              "time",
               new NyxCallable() {
                 @Override
                 public Object call(Interpreter interpreter, List<Object> args) {
@@ -28,14 +30,14 @@ public final class NyxGlobals {
                 public String toString() {
                   return "<native fn>";
                 }
-              },
-          "print",
+              }),
+          Map.entry(
+              "print",
               new NyxCallable() {
                 @Override
                 public Object call(Interpreter interpreter, List<Object> args) {
-                  Object arg = args.get(0);
-                  String str = (arg != null ? arg.toString() : "nil");
-                  System.out.println(str);
+                  String str = Interpreter.stringify(args.get(0));
+                  interpreter.getOutput().println(str);
                   return str;
                 }
 
@@ -48,14 +50,230 @@ public final class NyxGlobals {
                 public String toString() {
                   return "<native fn>";
                 }
-              },
-          "input",
+              }),
+          Map.entry(
+              "flush",
               new NyxCallable() {
-                private static final Scanner scanner = new Scanner(System.in);
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  interpreter.getOutput().flush();
+                  return null;
+                }
+
+                @Override
+                public int aritiy() {
+                  return 0;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "input",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  // The prompt printed before must be visible while waiting for the input.
+                  interpreter.getOutput().flush();
+                  try {
+                    return interpreter.getInput().readLine();
+                  } catch (IOException ex) {
+                    throw new RuntimeError("Could not read input.");
+                  }
+                }
+
+                @Override
+                public int aritiy() {
+                  return 0;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "lines",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxLines.of(args.get(0));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "stdinLines",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxLines.of(interpreter.getInput());
+                }
+
+                @Override
+                public int aritiy() {
+                  return 0;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "readBytes",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxBytes.read(args.get(0));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "mmap",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxBytes.map(args.get(0));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "memo",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  if (args.get(0) instanceof NyxCallable function)
+                    return new NyxMemo(function, NyxMemo.DEFAULT_CAPACITY);
+                  throw new RuntimeError("Can only memoize functions and classes.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
 
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "spawn",
+              new NyxCallable() {
                 @Override
                 public Object call(Interpreter interpreter, List<Object> args) {
-                  return scanner.nextLine();
+                  if (args.get(0) instanceof NyxCallable function && function.aritiy() == 0)
+                    return NyxTask.spawn(function, interpreter);
+                  throw new RuntimeError("Can only spawn functions without parameters.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "channel",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  Object capacity = args.get(0);
+                  if (NyxNumber.isNumber(capacity) && NyxNumber.toDouble(capacity) >= 1)
+                    return new NyxChannel((int) Math.min(NyxNumber.toDouble(capacity), 1 << 24));
+                  throw new RuntimeError("Channel capacity must be a positive number.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "array",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  Object length = args.get(0);
+                  if (NyxNumber.isNumber(length)
+                      && NyxNumber.toDouble(length) >= 0
+                      && NyxNumber.toDouble(length) <= Integer.MAX_VALUE - 8)
+                    return new NyxArray((int) NyxNumber.toDouble(length));
+                  throw new RuntimeError("Array length must be a non-negative number.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "range",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return new NyxRange(NyxRange.bound(args.get(0)), NyxRange.bound(args.get(1)));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "dict",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return new NyxDict();
                 }
 
                 @Override
@@ -67,5 +285,251 @@ public final class NyxGlobals {
                 public String toString() {
                   return "<native fn>";
                 }
-              });
+              }),
+          Map.entry(
+              "map",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  if (args.get(0) instanceof NyxCallable function)
+                    return NyxStream.map(function, args.get(1));
+                  throw new RuntimeError("Can only map with functions.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "filter",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  if (args.get(0) instanceof NyxCallable function)
+                    return NyxStream.filter(function, args.get(1));
+                  throw new RuntimeError("Can only filter with functions.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "take",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxStream.take(args.get(0), args.get(1));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "reduce",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  if (args.get(0) instanceof NyxCallable function)
+                    return NyxStream.reduce(interpreter, function, args.get(1), args.get(2));
+                  throw new RuntimeError("Can only reduce with functions.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 3;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "pmap",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  if (args.get(0) instanceof NyxCallable function
+                      && args.get(1) instanceof NyxArray array)
+                    return NyxParallel.pmap(interpreter, function, array);
+                  throw new RuntimeError("Expected a function and an array.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "preduce",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  if (args.get(0) instanceof NyxCallable function
+                      && args.get(2) instanceof NyxArray array)
+                    return NyxParallel.preduce(interpreter, function, args.get(1), array);
+                  throw new RuntimeError("Expected a function, an initial value and an array.");
+                }
+
+                @Override
+                public int aritiy() {
+                  return 3;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "vadd",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxVectors.add(args.get(0), args.get(1));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "vmul",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxVectors.mul(args.get(0), args.get(1));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "axpy",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxVectors.axpy(args.get(0), args.get(1), args.get(2));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 3;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "dot",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxVectors.dot(args.get(0), args.get(1));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 2;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "sum",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxVectors.sum(args.get(0));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "min",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxVectors.min(args.get(0));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }),
+          Map.entry(
+              "max",
+              new NyxCallable() {
+                @Override
+                public Object call(Interpreter interpreter, List<Object> args) {
+                  return NyxVectors.max(args.get(0));
+                }
+
+                @Override
+                public int aritiy() {
+                  return 1;
+                }
+
+                @Override
+                public String toString() {
+                  return "<native fn>";
+                }
+              }));
 }
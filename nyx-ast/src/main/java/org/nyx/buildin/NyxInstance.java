@@ -1,12 +1,17 @@
 package org.nyx.buildin;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
 import org.nyx.Interpreter.RuntimeError;
 import org.nyx.Token;
+import org.nyx.jmx.InterpreterStats;
+
+// Field access is synchronized, instances may be shared between tasks.
+public class NyxInstance implements NyxContainer, Serializable {
+  private static final long serialVersionUID = 1L;
 
-public class NyxInstance implements NyxContainer {
   private final Map<String, Object> fields = new HashMap<>();
   private final NyxClass creator;
 
@@ -16,26 +21,38 @@ public class NyxInstance implements NyxContainer {
 
   @Override
   public Object get(Token name) {
+    return get(name, null);
+  }
+
+  public synchronized Object get(Token name, InterpreterStats stats) {
     if (fields.containsKey(name.lexeme())) {
       return fields.get(name.lexeme());
     }
 
     NyxFunction method = creator.findMethod(name);
+    if (stats != null) {
+      stats.methodLookedUp();
+      stats.environmentAllocated();
+    }
     if (method != null) return method.bind(this);
 
     throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
   }
 
   @Override
-  public void set(Token name, Object value) {
+  public synchronized void set(Token name, Object value) {
     fields.put(name.lexeme(), value);
   }
 
   @Override
-  public void compute(Token name, BiFunction<String, Object, Object> func) {
+  public synchronized void compute(Token name, BiFunction<String, Object, Object> func) {
     fields.compute(name.lexeme(), func);
   }
 
+  public NyxClass getCreator() {
+    return creator;
+  }
+
   @Override
   public String toString() {
     return "<" + creator.getName() + "#" + this.hashCode() + ">";
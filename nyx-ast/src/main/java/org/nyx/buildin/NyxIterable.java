@@ -0,0 +1,26 @@
+package org.nyx.buildin;
+
+import java.util.Iterator;
+import org.nyx.Interpreter;
+
+/**
+ * Native value a {@code for (x in value)} loop can iterate over. The interpreter is the one running
+ * the loop, iterables calling back into nyx code use it for their calls.
+ */
+public interface NyxIterable {
+  Iterator<Object> iterator(Interpreter interpreter);
+
+  /**
+   * Releases the iterator once the loop is done with it. Iterators holding files implement {@link
+   * AutoCloseable}, they are closed even if the loop stops before the end.
+   */
+  static void release(Iterator<?> iterator) {
+    if (iterator instanceof AutoCloseable closeable) {
+      try {
+        closeable.close();
+      } catch (Exception ex) {
+        // The files are only read, nothing can be lost.
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.nyx.buildin;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import org.nyx.Input;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Lines of a file created by {@code lines(path)}, or of standard input created by {@code
+ * stdinLines()}, without their terminators.
+ *
+ * <p>Lines are read lazily while they are iterated, only one buffer of the file is held in memory
+ * however large the file is. Every iteration of a file starts at its beginning, the file is closed
+ * when the iteration ends or the loop returns early. Standard input is shared, so its lines are
+ * consumed by the first iteration, as they would be by {@code input()}. Files are decoded as
+ * UTF-8, malformed bytes are replaced.
+ */
+public final class NyxLines implements NyxContainer, NyxIterable {
+  private final Path file;
+  private final Input input;
+
+  private NyxLines(Path file, Input input) {
+    this.file = file;
+    this.input = input;
+  }
+
+  public static NyxLines of(Object path) {
+    return new NyxLines(NyxFiles.file(path), null);
+  }
+
+  public static NyxLines of(Input input) {
+    return new NyxLines(null, input);
+  }
+
+  @Override
+  public Iterator<Object> iterator(Interpreter interpreter) {
+    if (input != null) return new Lines(input::readLine, null);
+
+    try {
+      FileChannel channel = FileChannel.open(file);
+      var decoder =
+          StandardCharsets.UTF_8
+              .newDecoder()
+              .onMalformedInput(CodingErrorAction.REPLACE)
+              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      BufferedReader reader =
+          new BufferedReader(Channels.newReader(channel, decoder, -1), Input.BUFFER_SIZE);
+      return new Lines(reader::readLine, reader);
+    } catch (IOException ex) {
+      throw NyxFiles.error(file, ex);
+    }
+  }
+
+  private interface Source {
+    String readLine() throws IOException;
+  }
+
+  // Reads one line ahead, the reader is closed as soon as the end is reached.
+  private final class Lines implements Iterator<Object>, Closeable {
+    private final Source source;
+    private final Closeable reader;
+    private String next;
+    private boolean done;
+
+    Lines(Source source, Closeable reader) {
+      this.source = source;
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next != null) return true;
+      if (done) return false;
+      try {
+        next = source.readLine();
+      } catch (IOException ex) {
+        close();
+        throw file != null ? NyxFiles.error(file, ex) : new RuntimeError("Could not read input.");
+      }
+      if (next == null) close();
+      return next != null;
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      String line = next;
+      next = null;
+      return line;
+    }
+
+    @Override
+    public void close() {
+      done = true;
+      if (reader == null) return;
+      try {
+        reader.close();
+      } catch (IOException ex) {
+        // The file was only read, nothing can be lost.
+      }
+    }
+  }
+
+  @Override
+  public Object get(Token name) {
+    throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of lines.");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of lines.");
+  }
+
+  @Override
+  public String toString() {
+    return file != null ? "<lines " + file + ">" : "<lines stdin>";
+  }
+}
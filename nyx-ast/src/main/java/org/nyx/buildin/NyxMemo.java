@@ -0,0 +1,135 @@
+package org.nyx.buildin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Memoizing wrapper around a callable. Results are cached by argument values in a bounded LRU
+ * cache, so it should only wrap pure functions. Scripts can query {@code hits}, {@code misses},
+ * {@code size} and {@code capacity}, assign a new {@code capacity} and call {@code clear()}.
+ */
+public final class NyxMemo implements NyxCallable, NyxContainer {
+  public static final int DEFAULT_CAPACITY = Integer.getInteger("nyx.memo.capacity", 1024);
+
+  private final NyxCallable function;
+  private final LinkedHashMap<List<Object>, Optional<Object>> cache;
+  private int capacity;
+  private long hits;
+  private long misses;
+
+  public NyxMemo(NyxCallable function, int capacity) {
+    this.function = function;
+    this.capacity = capacity;
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<List<Object>, Optional<Object>> eldest) {
+            return size() > NyxMemo.this.capacity;
+          }
+        };
+  }
+
+  @Override
+  public Object call(Interpreter interpreter, List<Object> args) {
+    List<Object> key = new ArrayList<>(args.size());
+    for (Object arg : args) key.add(normalize(arg));
+
+    synchronized (this) {
+      Optional<Object> cached = cache.get(key);
+      if (cached != null) {
+        hits++;
+        return cached.orElse(null);
+      }
+      misses++;
+    }
+
+    // The lock is not held during the call, the wrapped function may recurse into this memo.
+    Object result = function.call(interpreter, args);
+    synchronized (this) {
+      cache.put(key, Optional.ofNullable(result));
+    }
+    return result;
+  }
+
+  // Equal nyx values have to produce equal keys, e.g. 2 and 2.0.
+  private static Object normalize(Object arg) {
+    if (arg instanceof Double d) {
+      long l = d.longValue();
+      if (l == d && Math.abs(l) <= 1L << 53 && !(l == 0 && 1 / d < 0)) return l;
+    }
+    return NyxString.flatten(arg);
+  }
+
+  @Override
+  public int aritiy() {
+    return function.aritiy();
+  }
+
+  @Override
+  public synchronized Object get(Token name) {
+    return switch (name.lexeme()) {
+      case "hits" -> hits;
+      case "misses" -> misses;
+      case "size" -> (long) cache.size();
+      case "capacity" -> (long) capacity;
+      case "clear" -> new NyxNative(
+          0,
+          (interpreter, args) -> {
+            clear();
+            return null;
+          });
+      default -> throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+    };
+  }
+
+  @Override
+  public synchronized void set(Token name, Object value) {
+    if (!name.lexeme().equals("capacity"))
+      throw new RuntimeError(name, "Can only set the capacity of a memo.");
+    if (!NyxNumber.isNumber(value) || NyxNumber.toDouble(value) < 1)
+      throw new RuntimeError(name, "Capacity must be a positive number.");
+
+    capacity = (int) Math.min(NyxNumber.toDouble(value), Integer.MAX_VALUE);
+    // Shrink right away instead of waiting for the next insertion.
+    var iter = cache.keySet().iterator();
+    while (cache.size() > capacity) {
+      iter.next();
+      iter.remove();
+    }
+  }
+
+  @Override
+  public synchronized void compute(Token name, BiFunction<String, Object, Object> func) {
+    set(name, func.apply(name.lexeme(), get(name)));
+  }
+
+  public synchronized void clear() {
+    cache.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public String toString() {
+    return "<memo " + function + ">";
+  }
+}
@@ -1,28 +1,47 @@
 package org.nyx.buildin;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.Serializable;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 import org.nyx.Environment;
 import org.nyx.Interpreter;
 import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Nyx;
 import org.nyx.Parser;
-import org.nyx.Resolution;
+import org.nyx.Program;
+import org.nyx.ProgramCache;
 import org.nyx.Scanner;
 import org.nyx.Stmt;
 import org.nyx.Token;
+import org.nyx.jfr.NyxModuleLoadEvent;
+
+public class NyxModule implements NyxContainer, Serializable {
+  private static final long serialVersionUID = 1L;
 
-public class NyxModule implements NyxContainer {
   private final Environment environment;
   private final Token name;
 
-  private static final Map<String, NyxModule> LOADED_MODULES = new HashMap<>();
+  private static final Map<String, CompletableFuture<NyxModule>> LOADED_MODULES =
+      new ConcurrentHashMap<>();
+  private static final Imports IMPORTS = new Imports();
+  // Set once tasks may run, modules loaded from then on are shared between threads right away.
+  private static volatile boolean shared;
+  // Files importing each module file, directly.
+  private static final Map<String, Set<String>> DEPENDENTS = new ConcurrentHashMap<>();
 
   public static NyxModule from(List<Token> path) {
     // We assert that the path is never empty and therefore always contains at least one token.
@@ -36,56 +55,207 @@ public class NyxModule implements NyxContainer {
     builder.append(".nyx");
 
     // Look at local files
-    File file = new File(builder.toString());
-    if (file.exists()) return NyxModule.from(name, file);
+    File file = NyxFiles.resolve(builder.toString()).toFile();
+    if (file.exists()) return imported(path.get(0), name, file);
 
     // Look at library files
     builder.insert(0, File.separatorChar).insert(0, ".nyx");
-    file = new File(builder.toString());
-    if (file.exists()) return NyxModule.from(name, file);
+    file = NyxFiles.resolve(builder.toString()).toFile();
+    if (file.exists()) return imported(path.get(0), name, file);
 
     // Look at stdlib files
     builder.insert(0, File.separatorChar).insert(0, System.getProperty("user.home"));
     file = new File(builder.toString());
-    if (file.exists()) return NyxModule.from(name, file);
+    if (file.exists()) return imported(path.get(0), name, file);
 
     throw new RuntimeError(
         name, "Could not find module in local libray or std, looked at " + file.getAbsolutePath());
   }
 
+  // Remembers which file imports the module, then imports it.
+  private static NyxModule imported(Token importer, Token name, File file) {
+    try {
+      Path importing = NyxFiles.resolve(importer.filename()).toAbsolutePath().normalize();
+      DEPENDENTS
+          .computeIfAbsent(key(file), key -> ConcurrentHashMap.newKeySet())
+          .add(importing.toString());
+    } catch (InvalidPathException ex) {
+      // Sources which are not files, like the REPL, can not change.
+    }
+    return NyxModule.from(name, file);
+  }
+
+  private static String key(File file) {
+    return file.toPath().toAbsolutePath().normalize().toString();
+  }
+
+  /** Forgets all loaded modules, the next import of a module loads it again. */
+  public static void unloadAll() {
+    LOADED_MODULES.clear();
+  }
+
+  /**
+   * Forgets the module of the file and all modules importing it, directly or through other
+   * modules, so their next imports load them again. Returns the paths of the forgotten files.
+   */
+  public static Set<String> invalidate(Path file) {
+    Set<String> invalidated = new HashSet<>();
+    Deque<String> pending = new ArrayDeque<>();
+    pending.push(file.toAbsolutePath().normalize().toString());
+    while (!pending.isEmpty()) {
+      String path = pending.pop();
+      if (!invalidated.add(path)) continue;
+      LOADED_MODULES.remove(path);
+      pending.addAll(DEPENDENTS.getOrDefault(path, Set.of()));
+    }
+    return invalidated;
+  }
+
+  /**
+   * Makes the variables of all modules, loaded now or later, safe to read and write from several
+   * threads. Called before the first task starts.
+   */
+  public static void shareAll() {
+    if (shared) return;
+    shared = true;
+    for (NyxModule module : loaded().values()) module.environment.share();
+  }
+
+  /** Absolute paths of all files imported so far, including the ones which failed to load. */
+  public static Set<String> imported() {
+    return Set.copyOf(DEPENDENTS.keySet());
+  }
+
+  /** Modules which finished loading, by the absolute path of their file. */
+  public static Map<String, NyxModule> loaded() {
+    Map<String, NyxModule> modules = new HashMap<>();
+    for (var entry : LOADED_MODULES.entrySet()) {
+      CompletableFuture<NyxModule> module = entry.getValue();
+      if (module.isDone() && !module.isCompletedExceptionally())
+        modules.put(entry.getKey(), module.join());
+    }
+    return modules;
+  }
+
+  /** Adds modules loaded earlier, e.g. by another process, modules loaded already are kept. */
+  public static void restore(Map<String, NyxModule> modules) {
+    for (var entry : modules.entrySet()) {
+      if (shared) entry.getValue().environment.share();
+      var module = CompletableFuture.completedFuture(entry.getValue());
+      LOADED_MODULES.putIfAbsent(entry.getKey(), module);
+    }
+  }
+
+  public static int loadedModules() {
+    int count = 0;
+    for (var module : LOADED_MODULES.values()) {
+      if (module.isDone() && !module.isCompletedExceptionally()) count++;
+    }
+    return count;
+  }
+
+  /**
+   * Returns the module of the file and loads it if nobody did before. The first importer loads
+   * the module on its own thread, concurrent importers of the same module wait for that load to
+   * finish. Imports that would wait for themselves, directly or through other threads, are import
+   * cycles and fail.
+   */
   public static NyxModule from(Token name, File file) {
-    String key = file.getAbsolutePath();
-    NyxModule module;
-    if (LOADED_MODULES.containsKey(key)) {
-      module = LOADED_MODULES.get(key);
-      if (module == null)
-        throw new RuntimeError(name, "Recursive import detected for file: " + key);
-    } else {
-      // Use null to mark that we currently load this module
-      LOADED_MODULES.put(key, null);
-      module = new NyxModule(name, file);
-      LOADED_MODULES.put(key, module);
+    String key = key(file);
+    CompletableFuture<NyxModule> loading = new CompletableFuture<>();
+    CompletableFuture<NyxModule> loaded = LOADED_MODULES.putIfAbsent(key, loading);
+    if (loaded == null) return load(name, file, key, loading);
+    if (loaded.isDone() && !loaded.isCompletedExceptionally()) return loaded.join();
+
+    Thread current = Thread.currentThread();
+    synchronized (IMPORTS) {
+      // Follow the chain of loads we would wait for, it must not lead back to us.
+      for (Thread loader = IMPORTS.loaders.get(key); loader != null; ) {
+        if (loader == current)
+          throw new RuntimeError(name, "Recursive import detected for file: " + key);
+        String awaited = IMPORTS.waiting.get(loader);
+        loader = awaited != null ? IMPORTS.loaders.get(awaited) : null;
+      }
+      IMPORTS.waiting.put(current, key);
+    }
+    try {
+      return loaded.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeError error) throw error;
+      throw new RuntimeError(name, "Could not import module: " + ex.getCause());
+    } finally {
+      synchronized (IMPORTS) {
+        IMPORTS.waiting.remove(current);
+      }
     }
-    return module;
+  }
+
+  private static NyxModule load(
+      Token name, File file, String key, CompletableFuture<NyxModule> loading) {
+    synchronized (IMPORTS) {
+      IMPORTS.loaders.put(key, Thread.currentThread());
+    }
+    try {
+      NyxModule module = new NyxModule(name, file);
+      loading.complete(module);
+      return module;
+    } catch (RuntimeException ex) {
+      // Failed loads are forgotten, so the next import tries again.
+      LOADED_MODULES.remove(key, loading);
+      loading.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      synchronized (IMPORTS) {
+        IMPORTS.loaders.remove(key);
+      }
+    }
+  }
+
+  // Modules currently being loaded and the module each thread is waiting for, guarded by itself.
+  private static final class Imports {
+    private final Map<String, Thread> loaders = new HashMap<>();
+    private final Map<Thread, String> waiting = new HashMap<>();
   }
 
   private NyxModule(Token name, File file) {
-    try (FileInputStream stream = new FileInputStream(file)) {
-      Scanner scanner =
-          new Scanner(
-              file.getAbsolutePath(), new String(stream.readAllBytes(), Charset.defaultCharset()));
-      Parser parser = new Parser(scanner.scanTokens());
-      List<Stmt> stmts = parser.parse();
+    try {
+      NyxModuleLoadEvent event = new NyxModuleLoadEvent();
+      event.begin();
+      // Unchanged files are not compiled again, their scan, parse and resolve durations stay zero.
+      Program program = ProgramCache.load(file.toPath(), source -> compile(file, source, event));
+      if (program == null)
+        throw new RuntimeError(name, "Could not import module with syntax errors.");
+      long time = System.nanoTime();
       Interpreter interpreter = new Interpreter();
-      new Resolution(interpreter).resolve(stmts);
-      interpreter.interpret(stmts);
+      interpreter.interpret(program);
+      event.executeDuration = System.nanoTime() - time;
+      event.path = file.getAbsolutePath();
+      event.commit();
+      interpreter.close();
       this.name = name;
       this.environment = interpreter.getEnvironment();
+      if (shared) environment.share();
     } catch (IOException ex) {
       throw new RuntimeError(name, "Could not import module: " + ex.getMessage());
     }
   }
 
+  // Returns null if the module has syntax errors, they are reported already.
+  private static Program compile(File file, String source, NyxModuleLoadEvent event) {
+    int errors = Nyx.errorCount();
+    long time = System.nanoTime();
+    Scanner scanner = new Scanner(file.getAbsolutePath(), source);
+    List<Token> tokens = scanner.scanTokens();
+    event.scanDuration = -time + (time = System.nanoTime());
+    Parser parser = new Parser(tokens);
+    List<Stmt> stmts = parser.parse();
+    event.parseDuration = -time + (time = System.nanoTime());
+    if (Nyx.errorCount() != errors) return null;
+    Program program = Program.resolve(stmts);
+    event.resolveDuration = System.nanoTime() - time;
+    return program;
+  }
+
   @Override
   public Object get(Token name) {
     return environment.get(name);
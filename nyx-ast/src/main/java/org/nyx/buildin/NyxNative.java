@@ -0,0 +1,22 @@
+package org.nyx.buildin;
+
+import java.util.List;
+import org.nyx.Interpreter;
+
+/** Callable implemented in java, e.g. the methods of builtin containers. */
+public record NyxNative(int aritiy, Body body) implements NyxCallable {
+  @FunctionalInterface
+  public interface Body {
+    Object call(Interpreter interpreter, List<Object> args);
+  }
+
+  @Override
+  public Object call(Interpreter interpreter, List<Object> args) {
+    return body.call(interpreter, args);
+  }
+
+  @Override
+  public String toString() {
+    return "<native fn>";
+  }
+}
@@ -0,0 +1,112 @@
+package org.nyx.buildin;
+
+/**
+ * Arithmetic on nyx numbers. A number is either a {@link Long} for integral values or a {@link
+ * Double} for everything else. Integer operations stay on the long path as long as the result is
+ * exact and promote to double on overflow or on non integral results, so programs observe the same
+ * values as with doubles only.
+ */
+public final class NyxNumber {
+  private NyxNumber() {
+    throw new UnsupportedOperationException();
+  }
+
+  private static final long MAX_EXACT = 1L << 53;
+
+  public static boolean isNumber(Object value) {
+    return value instanceof Long || value instanceof Double;
+  }
+
+  public static double toDouble(Object value) {
+    return value instanceof Long l ? (double) l : (double) value;
+  }
+
+  public static Object add(Object left, Object right) {
+    if (left instanceof Long l && right instanceof Long r) {
+      long result = l + r;
+      // Overflow iff both operands have a different sign than the result.
+      if (((l ^ result) & (r ^ result)) < 0) return (double) l + (double) r;
+      return result;
+    }
+    return toDouble(left) + toDouble(right);
+  }
+
+  public static Object sub(Object left, Object right) {
+    if (left instanceof Long l && right instanceof Long r) {
+      long result = l - r;
+      if (((l ^ r) & (l ^ result)) < 0) return (double) l - (double) r;
+      return result;
+    }
+    return toDouble(left) - toDouble(right);
+  }
+
+  public static Object mul(Object left, Object right) {
+    if (left instanceof Long l && right instanceof Long r) {
+      long result = l * r;
+      if (Math.multiplyHigh(l, r) != (result >> 63)) return (double) l * (double) r;
+      // Doubles have a signed zero, e.g. 0 * -1 is -0.0.
+      if (result == 0 && (l < 0 || r < 0)) return -0.0;
+      return result;
+    }
+    return toDouble(left) * toDouble(right);
+  }
+
+  public static Object div(Object left, Object right) {
+    if (left instanceof Long l && right instanceof Long r) {
+      if (r != 0 && l % r == 0 && !(l == Long.MIN_VALUE && r == -1)) {
+        long result = l / r;
+        if (result == 0 && r < 0) return -0.0;
+        return result;
+      }
+      return (double) l / (double) r;
+    }
+    return toDouble(left) / toDouble(right);
+  }
+
+  public static Object negate(Object value) {
+    if (value instanceof Long l) {
+      if (l == 0) return -0.0;
+      if (l == Long.MIN_VALUE) return -(double) l;
+      return -l;
+    }
+    return -(double) value;
+  }
+
+  public static boolean less(Object left, Object right) {
+    if (left instanceof Long l && right instanceof Long r) return l < r;
+    return toDouble(left) < toDouble(right);
+  }
+
+  public static boolean lessEqual(Object left, Object right) {
+    if (left instanceof Long l && right instanceof Long r) return l <= r;
+    return toDouble(left) <= toDouble(right);
+  }
+
+  public static boolean equals(Object left, Object right) {
+    if (left instanceof Long l && right instanceof Long r) return l.longValue() == r.longValue();
+    return Double.valueOf(toDouble(left)).equals(toDouble(right));
+  }
+
+  /** Formats numbers exactly like {@link Double#toString(double)} does. */
+  public static String toString(Object value) {
+    if (value instanceof Long l) {
+      if (-MAX_EXACT <= l && l <= MAX_EXACT) return Double.toString(l);
+      return toScientific(l);
+    }
+    return value.toString();
+  }
+
+  // Integers above 2^53 are not representable as double, so we keep all of their digits.
+  private static String toScientific(long value) {
+    String digits = Long.toString(value);
+    int start = value < 0 ? 1 : 0;
+    int end = digits.length();
+    while (end > start + 2 && digits.charAt(end - 1) == '0') end--;
+
+    return digits.substring(0, start + 1)
+        + "."
+        + digits.substring(start + 1, end)
+        + "E"
+        + (digits.length() - start - 1);
+  }
+}
@@ -0,0 +1,151 @@
+package org.nyx.buildin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+
+/**
+ * Parallel {@code pmap(fn, array)} and {@code preduce(fn, init, array)} on the common fork/join
+ * pool.
+ *
+ * <p>The elements are split in halves until a chunk is small enough or the other workers have
+ * enough queued work, so the chunk size adapts to the load of the pool. Every chunk runs in its
+ * own interpreter {@link Interpreter#fork() forked} from the calling one, the same sharing rules as
+ * for {@link NyxTask tasks} apply. {@code preduce} folds every chunk from the left and combines the
+ * chunks in order, so for associative functions the result equals the sequential fold.
+ *
+ * <p>Chunks burn the fuel and allocation quota of the calling execution, so the limits do not grow
+ * with the number of workers.
+ */
+public final class NyxParallel {
+  // Chunks per worker at most, more chunks balance better but cost more interpreters.
+  private static final int CHUNKS_PER_WORKER = 8;
+
+  private NyxParallel() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static NyxArray pmap(Interpreter interpreter, NyxCallable function, NyxArray array) {
+    if (function.aritiy() != 1)
+      throw new RuntimeError("Can only map with functions taking one argument.");
+
+    Job job = new Job(function, interpreter, array.toArray());
+    ForkJoinPool.commonPool().invoke(new MapChunk(job, 0, job.values.length));
+    return NyxArray.of(job.values);
+  }
+
+  public static Object preduce(
+      Interpreter interpreter, NyxCallable function, Object initial, NyxArray array) {
+    if (function.aritiy() != 2)
+      throw new RuntimeError("Can only reduce with functions taking two arguments.");
+
+    Job job = new Job(function, interpreter, array.toArray());
+    if (job.values.length == 0) return initial;
+
+    Object reduced = ForkJoinPool.commonPool().invoke(new ReduceChunk(job, 0, job.values.length));
+    return function.call(interpreter, new ArrayList<>(Arrays.asList(initial, reduced)));
+  }
+
+  private static final class Job {
+    private final NyxCallable function;
+    private final Interpreter parent;
+    private final Object[] values;
+    private final int threshold;
+
+    Job(NyxCallable function, Interpreter parent, Object[] values) {
+      NyxTask.share(function);
+      this.function = function;
+      this.parent = parent;
+      this.values = values;
+      int workers = ForkJoinPool.getCommonPoolParallelism();
+      this.threshold = Math.max(1, values.length / (workers * CHUNKS_PER_WORKER));
+    }
+
+    // Split further only if the chunk is large and idle workers could steal the other half.
+    boolean split(int from, int to) {
+      return to - from > threshold && RecursiveTask.getSurplusQueuedTaskCount() <= 2;
+    }
+
+    // Runs the chunk in an interpreter of its own, forked from the calling one.
+    <T> T isolated(Function<Interpreter, T> code) {
+      try (Interpreter interpreter = parent.fork()) {
+        return interpreter.supervise(() -> code.apply(interpreter));
+      }
+    }
+  }
+
+  private static final class MapChunk extends RecursiveTask<Void> {
+    private final Job job;
+    private final int from;
+    private final int to;
+
+    MapChunk(Job job, int from, int to) {
+      this.job = job;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Void compute() {
+      if (job.split(from, to)) {
+        int middle = (from + to) >>> 1;
+        MapChunk right = new MapChunk(job, middle, to);
+        right.fork();
+        new MapChunk(job, from, middle).compute();
+        right.join();
+        return null;
+      }
+
+      return job.isolated(
+          interpreter -> {
+            List<Object> args = new ArrayList<>(Arrays.asList((Object) null));
+            for (int i = from; i < to; i++) {
+              args.set(0, job.values[i]);
+              job.values[i] = job.function.call(interpreter, args);
+            }
+            return null;
+          });
+    }
+  }
+
+  private static final class ReduceChunk extends RecursiveTask<Object> {
+    private final Job job;
+    private final int from;
+    private final int to;
+
+    ReduceChunk(Job job, int from, int to) {
+      this.job = job;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Object compute() {
+      if (job.split(from, to)) {
+        int middle = (from + to) >>> 1;
+        ReduceChunk right = new ReduceChunk(job, middle, to);
+        right.fork();
+        Object left = new ReduceChunk(job, from, middle).compute();
+        Object reduced = right.join();
+        return job.isolated(
+            interpreter ->
+                job.function.call(interpreter, new ArrayList<>(Arrays.asList(left, reduced))));
+      }
+
+      return job.isolated(
+          interpreter -> {
+            List<Object> args = new ArrayList<>(Arrays.asList(job.values[from], null));
+            for (int i = from + 1; i < to; i++) {
+              args.set(1, job.values[i]);
+              args.set(0, job.function.call(interpreter, args));
+            }
+            return args.get(0);
+          });
+    }
+  }
+}
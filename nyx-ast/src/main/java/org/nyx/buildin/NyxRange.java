@@ -0,0 +1,72 @@
+package org.nyx.buildin;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Integers from {@code start} up to but excluding {@code stop}, created by {@code range(start,
+ * stop)}. A {@code for (i in range(a, b))} loop counts with a primitive counter instead of going
+ * through the iterator.
+ */
+public record NyxRange(long start, long stop)
+    implements NyxContainer, NyxIterable, Serializable {
+  public long length() {
+    return Math.max(0, stop - start);
+  }
+
+  @Override
+  public Iterator<Object> iterator(Interpreter interpreter) {
+    return new Iterator<>() {
+      private long next = start;
+
+      @Override
+      public boolean hasNext() {
+        return next < stop;
+      }
+
+      @Override
+      public Object next() {
+        if (next >= stop) throw new NoSuchElementException();
+        return next++;
+      }
+    };
+  }
+
+  /** Converts a range bound, it has to be an integral number. */
+  static long bound(Object value) {
+    if (value instanceof Long l) return l;
+    if (value instanceof Double d && d == Math.rint(d) && Math.abs(d) <= 1L << 53)
+      return d.longValue();
+    throw new RuntimeError("Range bounds must be integers.");
+  }
+
+  @Override
+  public Object get(Token name) {
+    return switch (name.lexeme()) {
+      case "start" -> start;
+      case "stop" -> stop;
+      case "length" -> length();
+      default -> throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+    };
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of a range.");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of a range.");
+  }
+
+  @Override
+  public String toString() {
+    return "range(" + Interpreter.stringify(start) + ", " + Interpreter.stringify(stop) + ")";
+  }
+}
@@ -0,0 +1,234 @@
+package org.nyx.buildin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import org.nyx.Governor;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Token;
+
+/**
+ * Lazy pipeline created by {@code map(fn, source)}, {@code filter(fn, source)} and {@code take(n,
+ * source)}, consumed by {@code reduce(fn, init, source)} or a {@code for (x in stream)} loop.
+ * Sources are ranges, arrays, dicts, lines, bytes and other streams.
+ *
+ * <p>Nothing is evaluated until the stream is consumed. Adding a stage to a stream creates a new
+ * stream with the stages of both, so a pipeline is always a single source and a flat list of
+ * stages. Consuming it runs one loop over the source which passes every element through all
+ * stages at once, ranges are counted with a primitive counter. Only the functions of the stages
+ * are called in nyx. Streams are immutable and can be consumed any number of times.
+ */
+public final class NyxStream implements NyxContainer, NyxIterable {
+  private enum Kind {
+    MAP,
+    FILTER,
+    TAKE
+  }
+
+  private record Stage(Kind kind, NyxCallable function, long limit) {}
+
+  private final NyxIterable source;
+  private final Stage[] stages;
+
+  private NyxStream(NyxIterable source, Stage[] stages) {
+    this.source = source;
+    this.stages = stages;
+  }
+
+  public static NyxStream map(NyxCallable function, Object source) {
+    return of(source).then(new Stage(Kind.MAP, unary(function, "map"), 0));
+  }
+
+  public static NyxStream filter(NyxCallable function, Object source) {
+    return of(source).then(new Stage(Kind.FILTER, unary(function, "filter"), 0));
+  }
+
+  public static NyxStream take(Object count, Object source) {
+    if (!NyxNumber.isNumber(count) || NyxNumber.toDouble(count) < 0)
+      throw new RuntimeError("Can only take a non-negative number of elements.");
+    return of(source).then(new Stage(Kind.TAKE, null, (long) NyxNumber.toDouble(count)));
+  }
+
+  /** Folds the elements of the source from the left, starting with the initial value. */
+  public static Object reduce(
+      Interpreter interpreter, NyxCallable function, Object initial, Object source) {
+    if (function.aritiy() != 2)
+      throw new RuntimeError("Can only reduce with functions taking two arguments.");
+
+    List<Object> args = new ArrayList<>(Arrays.asList(initial, null));
+    of(source)
+        .run(
+            interpreter,
+            value -> {
+              args.set(1, value);
+              args.set(0, function.call(interpreter, args));
+              return true;
+            });
+    return args.get(0);
+  }
+
+  private static NyxStream of(Object source) {
+    if (source instanceof NyxStream stream) return stream;
+    if (source instanceof NyxIterable iterable) return new NyxStream(iterable, new Stage[0]);
+    throw new RuntimeError("Can only stream ranges, arrays, dicts, lines, bytes and streams.");
+  }
+
+  private static NyxCallable unary(NyxCallable function, String stage) {
+    if (function.aritiy() != 1)
+      throw new RuntimeError("Can only " + stage + " with functions taking one argument.");
+    return function;
+  }
+
+  private NyxStream then(Stage stage) {
+    Stage[] stages = Arrays.copyOf(this.stages, this.stages.length + 1);
+    stages[this.stages.length] = stage;
+    return new NyxStream(source, stages);
+  }
+
+  private interface Sink {
+    /** Consumes an element that passed all stages, returns false to stop the stream. */
+    boolean accept(Object value);
+  }
+
+  /** Pushes every element of the source through the stages into the sink. */
+  private void run(Interpreter interpreter, Sink sink) {
+    Pass pass = new Pass(interpreter);
+    Governor governor = interpreter.getGovernor();
+    if (pass.exhausted) return;
+
+    if (source instanceof NyxRange range) {
+      for (long i = range.start(); i < range.stop(); i++) {
+        // Natives get the call site attached to their errors, so no token is needed here.
+        governor.tick(null);
+        if (!pass.push(i, sink)) return;
+      }
+    } else if (source instanceof NyxArray array) {
+      for (int i = 0; i < array.length(); i++) {
+        governor.tick(null);
+        if (!pass.push(array.get(i), sink)) return;
+      }
+    } else {
+      Iterator<Object> iterator = source.iterator(interpreter);
+      try {
+        while (iterator.hasNext()) {
+          governor.tick(null);
+          if (!pass.push(iterator.next(), sink)) return;
+        }
+      } finally {
+        NyxIterable.release(iterator);
+      }
+    }
+  }
+
+  // State of one consumption of the stream, the argument lists are reused for every element.
+  private final class Pass {
+    private final Interpreter interpreter;
+    private final List<List<Object>> args;
+    private final long[] taken;
+    private boolean exhausted;
+
+    Pass(Interpreter interpreter) {
+      this.interpreter = interpreter;
+      this.args = new ArrayList<>(stages.length);
+      this.taken = new long[stages.length];
+      for (int s = 0; s < stages.length; s++) {
+        args.add(stages[s].function != null ? new ArrayList<>(Arrays.asList((Object) null)) : null);
+        if (stages[s].kind == Kind.TAKE && stages[s].limit == 0) exhausted = true;
+      }
+    }
+
+    /** Runs the element through all stages, returns false once no element can pass anymore. */
+    boolean push(Object value, Sink sink) {
+      for (int s = 0; s < stages.length; s++) {
+        Stage stage = stages[s];
+        switch (stage.kind) {
+          case MAP -> value = call(s, value);
+          case FILTER -> {
+            if (!(call(s, value) instanceof Boolean keep))
+              throw new RuntimeError("Expected filter function to return a boolean.");
+            if (!keep) return !exhausted;
+          }
+          case TAKE -> {
+            if (++taken[s] == stage.limit) exhausted = true;
+          }
+        }
+      }
+      return sink.accept(value) && !exhausted;
+    }
+
+    private Object call(int stage, Object value) {
+      List<Object> list = args.get(stage);
+      list.set(0, value);
+      return stages[stage].function.call(interpreter, list);
+    }
+  }
+
+  @Override
+  public Iterator<Object> iterator(Interpreter interpreter) {
+    return new Pull(interpreter);
+  }
+
+  // Pulls elements of the source through the stages until one of them comes out.
+  private final class Pull implements Iterator<Object>, Sink, AutoCloseable {
+    private final Pass pass;
+    private final Iterator<Object> source;
+    private Object next;
+    private boolean ready;
+    private boolean done;
+
+    Pull(Interpreter interpreter) {
+      this.pass = new Pass(interpreter);
+      this.source = NyxStream.this.source.iterator(interpreter);
+      this.done = pass.exhausted;
+    }
+
+    @Override
+    public boolean accept(Object value) {
+      next = value;
+      ready = true;
+      return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!ready && !done && source.hasNext()) done = !pass.push(source.next(), this);
+      return ready;
+    }
+
+    @Override
+    public void close() {
+      NyxIterable.release(source);
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      ready = false;
+      return next;
+    }
+  }
+
+  @Override
+  public Object get(Token name) {
+    throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of a stream.");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of a stream.");
+  }
+
+  @Override
+  public String toString() {
+    return "<stream>";
+  }
+}
@@ -0,0 +1,96 @@
+package org.nyx.buildin;
+
+import org.nyx.Governor;
+
+/**
+ * Lazily concatenated string. Repeated appends to the newest string of a chain share one growing
+ * buffer, so building a string piece by piece is linear instead of quadratic. The content is only
+ * copied into a flat {@link String} when it is observed. Buffers and flat copies are reserved
+ * with two bytes per character before they are allocated.
+ */
+public final class NyxString implements CharSequence {
+  private final StringBuilder buffer;
+  private final int length;
+  private String flat;
+
+  private NyxString(StringBuilder buffer, int length) {
+    this.buffer = buffer;
+    this.length = length;
+  }
+
+  public static NyxString concat(Object left, String right) {
+    if (left instanceof NyxString string) return string.concat(right);
+
+    String str = left.toString();
+    StringBuilder buffer = buffer(str.length() + right.length());
+    buffer.append(str).append(right);
+    return new NyxString(buffer, buffer.length());
+  }
+
+  public NyxString concat(String right) {
+    synchronized (buffer) {
+      // Only the newest string of a chain may append in place, every other one has to copy its
+      // prefix because the shared buffer already continues with different content.
+      if (buffer.length() == length) {
+        // A full buffer grows to about twice its size.
+        if (buffer.capacity() - length < right.length())
+          Governor.reserve(4L * (length + right.length()));
+        buffer.append(right);
+        return new NyxString(buffer, buffer.length());
+      }
+
+      StringBuilder copy = buffer(length + right.length());
+      copy.append(buffer, 0, length).append(right);
+      return new NyxString(copy, copy.length());
+    }
+  }
+
+  private static StringBuilder buffer(int length) {
+    Governor.reserve(4L * length);
+    return new StringBuilder(Math.max(16, 2 * length));
+  }
+
+  /** Replaces lazily concatenated strings by their flat content, leaves everything else as is. */
+  public static Object flatten(Object value) {
+    return value instanceof NyxString string ? string.toString() : value;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    return toString().charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().subSequence(start, end);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof NyxString other) return toString().equals(other.toString());
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return toString().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    String result = flat;
+    if (result == null) {
+      Governor.reserve(2L * length);
+      synchronized (buffer) {
+        result = buffer.substring(0, length);
+      }
+      flat = result;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,144 @@
+package org.nyx.buildin;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import org.nyx.Diagnostics;
+import org.nyx.Governor;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Nyx;
+import org.nyx.Token;
+
+/**
+ * Handle of a function running concurrently, created by {@code spawn(fn)}.
+ *
+ * <p>Every task runs in its own interpreter, so its call stack and the variables it declares are
+ * private. Variables captured by the spawned function, module variables and fields of instances
+ * are shared, every single read, write or compound assignment like {@code n += 1} of them is
+ * atomic. Anything spanning several of them is not, so tasks should communicate through channels.
+ *
+ * <p>An error of a task is rethrown by a join waiting for it. Tasks failing while nobody waits
+ * report their error right away, a later join fails without reporting it again.
+ *
+ * <p>Tasks run on virtual threads if the runtime supports them and on daemon threads otherwise.
+ * Pending tasks are stopped when the program ends, join a task to wait for it.
+ */
+public final class NyxTask implements NyxContainer {
+  private static final ExecutorService EXECUTOR = createExecutor();
+
+  // Whoever comes first handles an error of the task, a join waiting for it or the task itself.
+  private static final int PENDING = 0;
+  private static final int JOINED = 1;
+  private static final int REPORTED = 2;
+
+  private final AtomicInteger observed = new AtomicInteger(PENDING);
+  private Future<Object> future;
+
+  private NyxTask() {}
+
+  /** Spawns the function in an interpreter {@link Interpreter#fork() forked} from the parent. */
+  public static NyxTask spawn(NyxCallable function, Interpreter parent) {
+    share(function);
+    Interpreter forked = parent.fork();
+    NyxTask task = new NyxTask();
+    Supplier<Object> run =
+        Nyx.inherit(
+            () -> {
+              try (Interpreter interpreter = forked) {
+                return interpreter.supervise(() -> function.call(interpreter, List.of()));
+              } catch (RuntimeError error) {
+                task.failed(error);
+                throw error;
+              }
+            });
+    task.future = EXECUTOR.submit(run::get);
+    return task;
+  }
+
+  /**
+   * Makes the value safe to hand to other threads. The variables the function closes over and the
+   * variables of all modules can be read and written by several tasks from now on.
+   */
+  public static void share(Object value) {
+    NyxModule.shareAll();
+    if (value instanceof NyxFunction function) function.closure().share();
+  }
+
+  // Nobody may ever join the task, so its error is reported when it happens unless a join waits.
+  private void failed(RuntimeError error) {
+    if (!observed.compareAndSet(PENDING, REPORTED)) return;
+    Token token = error.getToken();
+    if (token != null) Nyx.error(token, error.getMessage());
+    else Nyx.error("<task>", 1, 1, error.getMessage());
+    Diagnostics.flush();
+  }
+
+  private static ExecutorService createExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      return Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "nyx-task");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+  }
+
+  /** Waits for the result of the task, while the governor of the joining execution allows. */
+  public Object join(Governor governor) {
+    observed.compareAndSet(PENDING, JOINED);
+    try {
+      for (; ; ) {
+        try {
+          return future.get(Governor.WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+          governor.checkpoint();
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeError("Interrupted while joining task.");
+    } catch (ExecutionException ex) {
+      if (observed.get() == REPORTED)
+        throw new RuntimeError("Joined task failed with the error reported before.");
+      // Keep the position inside the task where the error happened.
+      if (ex.getCause() instanceof RuntimeError error) throw error;
+      throw new RuntimeError("Task failed: " + ex.getCause());
+    }
+  }
+
+  @Override
+  public Object get(Token name) {
+    return switch (name.lexeme()) {
+      case "join" -> new NyxNative(0, (interpreter, args) -> join(interpreter.getGovernor()));
+      case "done" -> future.isDone();
+      default -> throw new RuntimeError(name, "Undefined property '" + name.lexeme() + "'.");
+    };
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    throw new RuntimeError(name, "Can not set properties of a task.");
+  }
+
+  @Override
+  public void compute(Token name, BiFunction<String, Object, Object> func) {
+    throw new RuntimeError(name, "Can not set properties of a task.");
+  }
+
+  @Override
+  public String toString() {
+    return "<task>";
+  }
+}
@@ -0,0 +1,144 @@
+package org.nyx.buildin;
+
+import org.nyx.Interpreter.RuntimeError;
+
+/**
+ * Bulk operations on numeric arrays: {@code vadd(a, b)}, {@code vmul(a, b)}, {@code axpy(alpha,
+ * x, y)}, {@code dot(a, b)}, {@code sum(a)}, {@code min(a)} and {@code max(a)}.
+ *
+ * <p>The operations run on the unboxed elements of the arrays. If the JVM was started with {@code
+ * --add-modules jdk.incubator.vector} they use SIMD instructions through the Vector API, else
+ * plain loops. Elementwise results are the same either way, sums and dot products may differ in
+ * the last bits since the vector loops add in a different order. Set {@code nyx.simd} to false to
+ * force the plain loops.
+ *
+ * <p>The Vector API kernels are compiled by the {@code simd} Maven profile only, since javac warns
+ * about every use of an incubating module. Builds without the profile always use the plain loops.
+ */
+public final class NyxVectors {
+  // Null if the plain loops are used.
+  private static final Kernels KERNELS = load();
+  public static final boolean SIMD = KERNELS != null;
+
+  /** The operations on unboxed elements, implemented with the Vector API. */
+  interface Kernels {
+    void add(double[] a, double[] b, double[] out, int length);
+
+    void mul(double[] a, double[] b, double[] out, int length);
+
+    void axpy(double alpha, double[] x, double[] y, double[] out, int length);
+
+    double dot(double[] a, double[] b, int length);
+
+    double sum(double[] a, int length);
+
+    double min(double[] a, int length);
+
+    double max(double[] a, int length);
+  }
+
+  private NyxVectors() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static NyxArray add(Object a, Object b) {
+    NyxArray.Numbers x = numbers(a);
+    NyxArray.Numbers y = numbers(b);
+    int length = sameLength(x, y);
+    double[] out = new double[length];
+    if (SIMD) KERNELS.add(x.values(), y.values(), out, length);
+    else for (int i = 0; i < length; i++) out[i] = x.values()[i] + y.values()[i];
+    return new NyxArray(out);
+  }
+
+  public static NyxArray mul(Object a, Object b) {
+    NyxArray.Numbers x = numbers(a);
+    NyxArray.Numbers y = numbers(b);
+    int length = sameLength(x, y);
+    double[] out = new double[length];
+    if (SIMD) KERNELS.mul(x.values(), y.values(), out, length);
+    else for (int i = 0; i < length; i++) out[i] = x.values()[i] * y.values()[i];
+    return new NyxArray(out);
+  }
+
+  /** Returns {@code alpha * x + y} as a new array. */
+  public static NyxArray axpy(Object alpha, Object a, Object b) {
+    if (!NyxNumber.isNumber(alpha)) throw new RuntimeError("Expected a number as factor.");
+    double factor = NyxNumber.toDouble(alpha);
+    NyxArray.Numbers x = numbers(a);
+    NyxArray.Numbers y = numbers(b);
+    int length = sameLength(x, y);
+    double[] out = new double[length];
+    if (SIMD) KERNELS.axpy(factor, x.values(), y.values(), out, length);
+    else for (int i = 0; i < length; i++) out[i] = factor * x.values()[i] + y.values()[i];
+    return new NyxArray(out);
+  }
+
+  public static Object dot(Object a, Object b) {
+    NyxArray.Numbers x = numbers(a);
+    NyxArray.Numbers y = numbers(b);
+    int length = sameLength(x, y);
+    if (SIMD) return NyxArray.number(KERNELS.dot(x.values(), y.values(), length));
+
+    double result = 0;
+    for (int i = 0; i < length; i++) result += x.values()[i] * y.values()[i];
+    return NyxArray.number(result);
+  }
+
+  public static Object sum(Object a) {
+    NyxArray.Numbers x = numbers(a);
+    if (SIMD) return NyxArray.number(KERNELS.sum(x.values(), x.length()));
+
+    double result = 0;
+    for (int i = 0; i < x.length(); i++) result += x.values()[i];
+    return NyxArray.number(result);
+  }
+
+  public static Object min(Object a) {
+    NyxArray.Numbers x = nonEmpty(numbers(a));
+    if (SIMD) return NyxArray.number(KERNELS.min(x.values(), x.length()));
+
+    double result = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < x.length(); i++) result = Math.min(result, x.values()[i]);
+    return NyxArray.number(result);
+  }
+
+  public static Object max(Object a) {
+    NyxArray.Numbers x = nonEmpty(numbers(a));
+    if (SIMD) return NyxArray.number(KERNELS.max(x.values(), x.length()));
+
+    double result = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < x.length(); i++) result = Math.max(result, x.values()[i]);
+    return NyxArray.number(result);
+  }
+
+  private static Kernels load() {
+    if (!Boolean.parseBoolean(System.getProperty("nyx.simd", "true"))
+        || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+    try {
+      Class<?> kernels = Class.forName("org.nyx.buildin.NyxSimd");
+      return (Kernels) kernels.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError ex) {
+      // Built without the simd profile.
+      return null;
+    }
+  }
+
+  private static NyxArray.Numbers numbers(Object array) {
+    if (array instanceof NyxArray cast) {
+      NyxArray.Numbers numbers = cast.numbers();
+      if (numbers != null) return numbers;
+    }
+    throw new RuntimeError("Expected an array of numbers.");
+  }
+
+  private static int sameLength(NyxArray.Numbers x, NyxArray.Numbers y) {
+    if (x.length() != y.length()) throw new RuntimeError("Expected arrays of the same length.");
+    return x.length();
+  }
+
+  private static NyxArray.Numbers nonEmpty(NyxArray.Numbers x) {
+    if (x.length() == 0) throw new RuntimeError("Expected a non-empty array.");
+    return x;
+  }
+}
@@ -0,0 +1,30 @@
+package org.nyx.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("org.nyx.FunctionCall")
+@Label("Nyx Function Call")
+@Category("Nyx")
+@Description("Call of a nyx function that took longer than the threshold")
+@Threshold("10 ms")
+@StackTrace(false)
+public class NyxFunctionCallEvent extends Event {
+  @Label("Function")
+  public String function;
+
+  @Label("File")
+  public String file;
+
+  @Label("Line")
+  public int line;
+
+  @Label("Failed")
+  @Description("The call ended with an error instead of returning")
+  public boolean failed;
+}
@@ -0,0 +1,35 @@
+package org.nyx.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("org.nyx.ModuleLoad")
+@Label("Nyx Module Load")
+@Category("Nyx")
+@Description("Import of a nyx module with the time spent in each stage")
+@StackTrace(false)
+public class NyxModuleLoadEvent extends Event {
+  @Label("Path")
+  public String path;
+
+  @Label("Scan Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  public long scanDuration;
+
+  @Label("Parse Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  public long parseDuration;
+
+  @Label("Resolve Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  public long resolveDuration;
+
+  @Label("Execute Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  public long executeDuration;
+}
@@ -0,0 +1,27 @@
+package org.nyx.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.nyx.RuntimeError")
+@Label("Nyx Runtime Error")
+@Category("Nyx")
+@Description("Runtime error reported by the nyx interpreter")
+@StackTrace(false)
+public class NyxRuntimeErrorEvent extends Event {
+  @Label("Message")
+  public String message;
+
+  @Label("File")
+  public String file;
+
+  @Label("Line")
+  public int line;
+
+  @Label("Column")
+  public int column;
+}
@@ -0,0 +1,112 @@
+package org.nyx.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.nyx.buildin.NyxModule;
+
+/**
+ * Counters of an interpreter. They are striped, so threads sharing an interpreter do not contend
+ * on them. Starting the platform MBean server is expensive, therefore interpreters only register
+ * themselves if the {@code nyx.jmx} system property is set, hosts may also call {@link
+ * #register()} directly.
+ */
+public final class InterpreterStats implements InterpreterStatsMBean {
+  public static final boolean AUTO_REGISTER = Boolean.getBoolean("nyx.jmx");
+
+  private static final AtomicLong IDS = new AtomicLong();
+
+  private final LongAdder statements = new LongAdder();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder environments = new LongAdder();
+  private final LongAdder instances = new LongAdder();
+  private final LongAdder methodLookups = new LongAdder();
+  private final LongAdder runtimeErrors = new LongAdder();
+  private ObjectName name;
+
+  public void statementExecuted() {
+    statements.increment();
+  }
+
+  public void called() {
+    calls.increment();
+  }
+
+  public void environmentAllocated() {
+    environments.increment();
+  }
+
+  public void instanceCreated() {
+    instances.increment();
+  }
+
+  public void methodLookedUp() {
+    methodLookups.increment();
+  }
+
+  public void runtimeError() {
+    runtimeErrors.increment();
+  }
+
+  @Override
+  public long getStatementsExecuted() {
+    return statements.sum();
+  }
+
+  @Override
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  @Override
+  public long getEnvironmentAllocations() {
+    return environments.sum();
+  }
+
+  @Override
+  public long getInstanceCreations() {
+    return instances.sum();
+  }
+
+  @Override
+  public long getMethodLookups() {
+    return methodLookups.sum();
+  }
+
+  @Override
+  public long getRuntimeErrors() {
+    return runtimeErrors.sum();
+  }
+
+  @Override
+  public int getModulesLoaded() {
+    return NyxModule.loadedModules();
+  }
+
+  public synchronized void register() {
+    if (name != null) return;
+
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName("org.nyx:type=Interpreter,id=" + IDS.incrementAndGet());
+      server.registerMBean(this, name);
+      this.name = name;
+    } catch (JMException ex) {
+      System.err.println("Could not register interpreter MBean: " + ex.getMessage());
+    }
+  }
+
+  public synchronized void unregister() {
+    if (name == null) return;
+
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    } catch (JMException ex) {
+      // Already unregistered.
+    }
+    name = null;
+  }
+}
@@ -0,0 +1,18 @@
+package org.nyx.jmx;
+
+/** Cumulative counters of one interpreter, exposed over JMX. */
+public interface InterpreterStatsMBean {
+  long getStatementsExecuted();
+
+  long getCalls();
+
+  long getEnvironmentAllocations();
+
+  long getInstanceCreations();
+
+  long getMethodLookups();
+
+  long getRuntimeErrors();
+
+  int getModulesLoaded();
+}
@@ -0,0 +1,76 @@
+package org.nyx.script;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.script.Bindings;
+import org.nyx.buildin.NyxString;
+
+/**
+ * View of host bindings that nyx environments read and write directly. Java numbers are converted
+ * to nyx numbers when they are read and lazily concatenated strings are flattened when they are
+ * written, nothing is copied up front.
+ */
+public final class NyxBindings extends AbstractMap<String, Object> implements Bindings {
+  private final Map<String, Object> values;
+
+  public NyxBindings() {
+    this(new HashMap<>());
+  }
+
+  private NyxBindings(Map<String, Object> values) {
+    this.values = values;
+  }
+
+  public static NyxBindings of(Map<String, Object> bindings) {
+    return bindings instanceof NyxBindings nyx ? nyx : new NyxBindings(bindings);
+  }
+
+  static Object toNyx(Object value) {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+      return ((Number) value).longValue();
+    if (value instanceof Float f) return f.doubleValue();
+    if (value instanceof Character c) return c.toString();
+    return value;
+  }
+
+  static Object toHost(Object value) {
+    return NyxString.flatten(value);
+  }
+
+  @Override
+  public Object get(Object key) {
+    return toNyx(values.get(key));
+  }
+
+  @Override
+  public Object put(String name, Object value) {
+    return values.put(name, toHost(value));
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return values.containsKey(key);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    return values.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    values.clear();
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return values.entrySet();
+  }
+}
@@ -0,0 +1,63 @@
+package org.nyx.script;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import org.nyx.Diagnostics;
+import org.nyx.Environment;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Output;
+import org.nyx.Program;
+
+/**
+ * Scanned, parsed and resolved script that can be evaluated any number of times. Every evaluation
+ * runs in a fresh interpreter whose global environment is enclosed by the engine and global scope
+ * bindings of the context, so bindings are looked up in place. Global variables declared by the
+ * script are exported to the engine scope afterwards. The program is immutable, so threads may
+ * evaluate it at the same time as long as each of them uses a context with bindings of its own.
+ */
+public class NyxCompiledScript extends CompiledScript {
+  private final NyxScriptEngine engine;
+  private final Program program;
+
+  NyxCompiledScript(NyxScriptEngine engine, Program program) {
+    this.engine = engine;
+    this.program = program;
+  }
+
+  @Override
+  public Object eval(ScriptContext context) throws ScriptException {
+    Environment scope = Interpreter.builtins();
+    Bindings global = context.getBindings(ScriptContext.GLOBAL_SCOPE);
+    if (global != null) scope = new Environment(scope, NyxBindings.of(global));
+    Bindings bindings = NyxBindings.of(context.getBindings(ScriptContext.ENGINE_SCOPE));
+    Environment globals = new Environment(new Environment(scope, bindings));
+
+    Output output = new Output(context.getWriter());
+    try (Interpreter interpreter = new Interpreter(globals)) {
+      interpreter.setOutput(output);
+      // Errors reported without stopping the script go to the context like the thrown ones.
+      Object value =
+          Diagnostics.use(
+              context.getErrorWriter(), report -> {}, () -> interpreter.execute(program));
+      bindings.putAll(globals.getValues());
+      return NyxBindings.toHost(value);
+    } catch (RuntimeError error) {
+      throw NyxScriptEngine.toScriptException(error);
+    } finally {
+      output.flush();
+    }
+  }
+
+  @Override
+  public ScriptEngine getEngine() {
+    return engine;
+  }
+
+  public Program getProgram() {
+    return program;
+  }
+}
@@ -0,0 +1,214 @@
+package org.nyx.script;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import org.nyx.Diagnostics;
+import org.nyx.Diagnostics.Report;
+import org.nyx.Interpreter;
+import org.nyx.Interpreter.RuntimeError;
+import org.nyx.Nyx;
+import org.nyx.Output;
+import org.nyx.Program;
+import org.nyx.Token;
+import org.nyx.TokenType;
+import org.nyx.buildin.NyxCallable;
+import org.nyx.buildin.NyxContainer;
+
+/**
+ * {@code javax.script} engine for nyx. Scripts are compiled once into an immutable {@link Program}
+ * and every evaluation runs in its own interpreter, see {@link NyxCompiledScript}.
+ */
+public class NyxScriptEngine extends AbstractScriptEngine implements Compilable, Invocable {
+  private final ScriptEngineFactory factory;
+
+  NyxScriptEngine(ScriptEngineFactory factory) {
+    this.factory = factory;
+  }
+
+  public NyxScriptEngine() {
+    this(new NyxScriptEngineFactory());
+  }
+
+  @Override
+  public NyxCompiledScript compile(String script) throws ScriptException {
+    return compile(script, context);
+  }
+
+  // Errors are written to the error writer of the context, the first one is thrown.
+  private NyxCompiledScript compile(String script, ScriptContext context) throws ScriptException {
+    Object name = get(ScriptEngine.FILENAME);
+    String filename = name != null ? name.toString() : "<script>";
+
+    int errors = Nyx.errorCount();
+    List<Report> reports = new ArrayList<>();
+    Program program =
+        Diagnostics.use(
+            context.getErrorWriter(), reports::add, () -> Program.compile(filename, script));
+    if (program == null || Nyx.errorCount() != errors) {
+      if (reports.isEmpty()) throw new ScriptException("Could not compile script.", filename, -1);
+      Report first = reports.get(0);
+      throw new ScriptException(first.message(), filename, first.line(), first.column());
+    }
+
+    return new NyxCompiledScript(this, program);
+  }
+
+  @Override
+  public CompiledScript compile(Reader script) throws ScriptException {
+    return compile(read(script));
+  }
+
+  @Override
+  public Object eval(String script, ScriptContext context) throws ScriptException {
+    return compile(script, context).eval(context);
+  }
+
+  @Override
+  public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+    return eval(read(reader), context);
+  }
+
+  @Override
+  public Bindings createBindings() {
+    return new NyxBindings();
+  }
+
+  @Override
+  public ScriptEngineFactory getFactory() {
+    return factory;
+  }
+
+  @Override
+  public Object invokeFunction(String name, Object... args)
+      throws ScriptException, NoSuchMethodException {
+    Object function = context.getAttribute(name);
+    if (function instanceof NyxCallable callable) return call(callable, args);
+
+    throw new NoSuchMethodException(name);
+  }
+
+  @Override
+  public Object invokeMethod(Object thiz, String name, Object... args)
+      throws ScriptException, NoSuchMethodException {
+    if (!(thiz instanceof NyxContainer container))
+      throw new IllegalArgumentException("Can only invoke methods of nyx objects.");
+
+    Object method;
+    try {
+      method = container.get(new Token(TokenType.IDENTIFIER, "<host>", name, null, 0, 0));
+    } catch (RuntimeError error) {
+      throw new NoSuchMethodException(name);
+    }
+    if (method instanceof NyxCallable callable) return call(callable, args);
+
+    throw new NoSuchMethodException(name);
+  }
+
+  @Override
+  public <T> T getInterface(Class<T> type) {
+    return proxy(null, type);
+  }
+
+  @Override
+  public <T> T getInterface(Object thiz, Class<T> type) {
+    if (!(thiz instanceof NyxContainer))
+      throw new IllegalArgumentException("Can only implement interfaces with nyx objects.");
+    return proxy(thiz, type);
+  }
+
+  private <T> T proxy(Object thiz, Class<T> type) {
+    if (type == null || !type.isInterface())
+      throw new IllegalArgumentException("Expected an interface.");
+
+    Object proxy =
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (self, method, args) -> {
+              if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(self, method, args);
+              }
+
+              Object[] arguments = args != null ? args : new Object[0];
+              Object result =
+                  thiz != null
+                      ? invokeMethod(thiz, method.getName(), arguments)
+                      : invokeFunction(method.getName(), arguments);
+              return toReturnType(result, method.getReturnType());
+            });
+    return type.cast(proxy);
+  }
+
+  private static Object objectMethod(Object self, Method method, Object[] args) {
+    return switch (method.getName()) {
+      case "equals" -> self == args[0];
+      case "hashCode" -> System.identityHashCode(self);
+      default -> "<nyx proxy>";
+    };
+  }
+
+  private static Object toReturnType(Object value, Class<?> type) {
+    if (value instanceof Number number) {
+      if (type == int.class || type == Integer.class) return number.intValue();
+      if (type == long.class || type == Long.class) return number.longValue();
+      if (type == double.class || type == Double.class) return number.doubleValue();
+      if (type == float.class || type == Float.class) return number.floatValue();
+    }
+    if (type == String.class && value != null) return Interpreter.stringify(value);
+    return value;
+  }
+
+  private Object call(NyxCallable callable, Object[] args) throws ScriptException {
+    if (callable.aritiy() != args.length)
+      throw new ScriptException(
+          "Expected " + callable.aritiy() + " arguments, but got " + args.length + ".");
+
+    List<Object> arguments = new ArrayList<>(args.length);
+    for (Object arg : args) arguments.add(NyxBindings.toNyx(arg));
+
+    Output output = new Output(context.getWriter());
+    try (Interpreter interpreter = new Interpreter()) {
+      interpreter.setOutput(output);
+      return NyxBindings.toHost(
+          interpreter.supervise(() -> callable.call(interpreter, arguments)));
+    } catch (RuntimeError error) {
+      throw toScriptException(error);
+    } finally {
+      output.flush();
+    }
+  }
+
+  static ScriptException toScriptException(RuntimeError error) {
+    Token token = error.getToken();
+    if (token == null) return new ScriptException(error.getMessage());
+
+    ScriptException exception =
+        new ScriptException(error.getMessage(), token.filename(), token.line(), token.column());
+    exception.initCause(error);
+    return exception;
+  }
+
+  private static String read(Reader reader) throws ScriptException {
+    try {
+      StringBuilder builder = new StringBuilder();
+      char[] buffer = new char[8192];
+      for (int n; (n = reader.read(buffer)) != -1; ) builder.append(buffer, 0, n);
+      return builder.toString();
+    } catch (IOException ex) {
+      throw new ScriptException(ex);
+    }
+  }
+}
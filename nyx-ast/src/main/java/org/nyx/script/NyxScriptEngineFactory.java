@@ -0,0 +1,81 @@
+package org.nyx.script;
+
+import java.util.List;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+/** Registers nyx as {@code javax.script} language under the name {@code nyx}. */
+public class NyxScriptEngineFactory implements ScriptEngineFactory {
+  private static final List<String> NAMES = List.of("nyx", "Nyx");
+  private static final List<String> EXTENSIONS = List.of("nyx");
+  private static final List<String> MIME_TYPES = List.of("application/x-nyx", "text/x-nyx");
+
+  @Override
+  public String getEngineName() {
+    return "Nyx AST";
+  }
+
+  @Override
+  public String getEngineVersion() {
+    return "1.0";
+  }
+
+  @Override
+  public List<String> getExtensions() {
+    return EXTENSIONS;
+  }
+
+  @Override
+  public List<String> getMimeTypes() {
+    return MIME_TYPES;
+  }
+
+  @Override
+  public List<String> getNames() {
+    return NAMES;
+  }
+
+  @Override
+  public String getLanguageName() {
+    return "Nyx";
+  }
+
+  @Override
+  public String getLanguageVersion() {
+    return "1.0";
+  }
+
+  @Override
+  public Object getParameter(String key) {
+    return switch (key) {
+      case ScriptEngine.ENGINE -> getEngineName();
+      case ScriptEngine.ENGINE_VERSION -> getEngineVersion();
+      case ScriptEngine.NAME -> NAMES.get(0);
+      case ScriptEngine.LANGUAGE -> getLanguageName();
+      case ScriptEngine.LANGUAGE_VERSION -> getLanguageVersion();
+      // Evaluations write their globals back into the engine bindings, which are not synchronized.
+      case "THREADING" -> null;
+      default -> null;
+    };
+  }
+
+  @Override
+  public String getMethodCallSyntax(String obj, String m, String... args) {
+    return obj + "." + m + "(" + String.join(", ", args) + ")";
+  }
+
+  @Override
+  public String getOutputStatement(String toDisplay) {
+    return "print(\"" + toDisplay.replace("\"", "") + "\")";
+  }
+
+  @Override
+  public String getProgram(String... statements) {
+    return String.join(";\n", statements) + ";\n";
+  }
+
+  @Override
+  public ScriptEngine getScriptEngine() {
+    return new NyxScriptEngine(this);
+  }
+}
@@ -0,0 +1,109 @@
+package org.nyx.buildin;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels of {@link NyxVectors}. This is the only class using {@code
+ * jdk.incubator.vector}. It is compiled by the {@code simd} profile only and loaded reflectively if
+ * the module is present at runtime.
+ */
+final class NyxSimd implements NyxVectors.Kernels {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  NyxSimd() {}
+
+  @Override
+  public void add(double[] a, double[] b, double[] out, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i)
+          .add(DoubleVector.fromArray(SPECIES, b, i))
+          .intoArray(out, i);
+    }
+    for (; i < length; i++) out[i] = a[i] + b[i];
+  }
+
+  @Override
+  public void mul(double[] a, double[] b, double[] out, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i)
+          .mul(DoubleVector.fromArray(SPECIES, b, i))
+          .intoArray(out, i);
+    }
+    for (; i < length; i++) out[i] = a[i] * b[i];
+  }
+
+  // Multiplies and adds separately instead of fused, so results equal the scalar loop.
+  @Override
+  public void axpy(double alpha, double[] x, double[] y, double[] out, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, x, i)
+          .mul(alpha)
+          .add(DoubleVector.fromArray(SPECIES, y, i))
+          .intoArray(out, i);
+    }
+    for (; i < length; i++) out[i] = alpha * x[i] + y[i];
+  }
+
+  @Override
+  public double dot(double[] a, double[] b, int length) {
+    DoubleVector sum = DoubleVector.zero(SPECIES);
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector product =
+          DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i));
+      sum = sum.add(product);
+    }
+    double result = sum.reduceLanes(VectorOperators.ADD);
+    for (; i < length; i++) result += a[i] * b[i];
+    return result;
+  }
+
+  @Override
+  public double sum(double[] a, int length) {
+    DoubleVector sum = DoubleVector.zero(SPECIES);
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      sum = sum.add(DoubleVector.fromArray(SPECIES, a, i));
+    }
+    double result = sum.reduceLanes(VectorOperators.ADD);
+    for (; i < length; i++) result += a[i];
+    return result;
+  }
+
+  @Override
+  public double min(double[] a, int length) {
+    int i = 0;
+    double result = Double.POSITIVE_INFINITY;
+    int bound = SPECIES.loopBound(length);
+    if (bound > 0) {
+      DoubleVector min = DoubleVector.fromArray(SPECIES, a, 0);
+      for (i = SPECIES.length(); i < bound; i += SPECIES.length()) {
+        min = min.min(DoubleVector.fromArray(SPECIES, a, i));
+      }
+      result = min.reduceLanes(VectorOperators.MIN);
+    }
+    for (; i < length; i++) result = Math.min(result, a[i]);
+    return result;
+  }
+
+  @Override
+  public double max(double[] a, int length) {
+    int i = 0;
+    double result = Double.NEGATIVE_INFINITY;
+    int bound = SPECIES.loopBound(length);
+    if (bound > 0) {
+      DoubleVector max = DoubleVector.fromArray(SPECIES, a, 0);
+      for (i = SPECIES.length(); i < bound; i += SPECIES.length()) {
+        max = max.max(DoubleVector.fromArray(SPECIES, a, i));
+      }
+      result = max.reduceLanes(VectorOperators.MAX);
+    }
+    for (; i < length; i++) result = Math.max(result, a[i]);
+    return result;
+  }
+}
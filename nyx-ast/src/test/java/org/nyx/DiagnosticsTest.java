@@ -0,0 +1,32 @@
+package org.nyx;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class DiagnosticsTest {
+  @Test
+  void errorsRenderTheSourceTheyCameFrom() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintStream err = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+    Diagnostics.use(
+        err,
+        () -> {
+          Program first = Program.compile("<script>", "let a = 1;\nlet b = nope;");
+          Program.compile("<script>", "print(1);\nprint(2);");
+          try (Interpreter interpreter = new Interpreter()) {
+            interpreter.interpret(first);
+          }
+          return null;
+        });
+    Nyx.resetErrors();
+
+    String report = bytes.toString(StandardCharsets.UTF_8);
+    assertTrue(report.contains("let b = nope;"), report);
+    assertFalse(report.contains("print(2);"), report);
+  }
+}
@@ -0,0 +1,43 @@
+package org.nyx;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class EnvironmentTest {
+  private static String errors(String source) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintStream err = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+    Diagnostics.use(
+        err,
+        () -> {
+          try (Interpreter interpreter = new Interpreter()) {
+            interpreter.interpret(Program.compile("<test>", source));
+          }
+          return null;
+        });
+    Nyx.resetErrors();
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void assigningUndeclaredVariablesIsNotAssigningBuiltins() {
+    for (String source : new String[] {"x = 1;", "x += 1;"}) {
+      String report = errors(source);
+      assertTrue(report.contains("Variable 'x' is not declared."), report);
+      assertFalse(report.contains("builtin"), report);
+    }
+  }
+
+  @Test
+  void assigningBuiltinsIsReported() {
+    for (String source : new String[] {"print = 1;", "print += 1;"}) {
+      String report = errors(source);
+      assertTrue(report.contains("Can not assign to builtin 'print'."), report);
+    }
+  }
+}
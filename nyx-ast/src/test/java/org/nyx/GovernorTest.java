@@ -0,0 +1,156 @@
+package org.nyx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.nyx.Governor.LimitExceeded;
+import org.nyx.Interpreter.RuntimeError;
+
+class GovernorTest {
+  private static Object run(Governor governor, String source) {
+    try (Interpreter interpreter = new Interpreter()) {
+      interpreter.setGovernor(governor);
+      return interpreter.execute(Program.compile("<test>", source));
+    }
+  }
+
+  private static long burn(Governor governor) {
+    long ticks = 0;
+    try {
+      for (; ; ) {
+        governor.tick(null);
+        ticks++;
+      }
+    } catch (LimitExceeded ex) {
+      return ticks;
+    }
+  }
+
+  @Test
+  void burnsExactlyTheFuel() {
+    assertEquals(10_000, burn(new Governor(10_000, null, Governor.UNLIMITED)));
+  }
+
+  @Test
+  void childrenDrawFromTheFuelOfTheirRoot() {
+    Governor root = new Governor(10_000, null, Governor.UNLIMITED);
+    Governor child = root.child();
+    long burnt = 0;
+    for (int i = 0; i < 1_000; i++) {
+      burnt++;
+      child.tick(null);
+    }
+    child.release();
+    burnt += burn(root);
+    assertEquals(10_000, burnt);
+    assertEquals(0, burn(root.child()));
+  }
+
+  @Test
+  void renewedGovernorHasFullFuel() {
+    Governor governor = new Governor(1_000, null, Governor.UNLIMITED);
+    burn(governor);
+    assertEquals(1_000, burn(governor.renew()));
+  }
+
+  @Test
+  void spawnedTasksDoNotExtendTheFuel() {
+    String source =
+        """
+        fun work() { let i = 0; while (i < 8000) i = i + 1; return i; }
+        let tasks = array(8);
+        let k = 0;
+        while (k < 8) { tasks.set(k, spawn(work)); k = k + 1; }
+        k = 0;
+        while (k < 8) { tasks.get(k).join(); k = k + 1; }
+        """;
+    RuntimeError error =
+        assertThrows(
+            RuntimeError.class, () -> run(new Governor(10_000, null, Governor.UNLIMITED), source));
+    assertTrue(error.getMessage().contains("ran out of fuel"), error.getMessage());
+  }
+
+  @Test
+  void parallelChunksDoNotExtendTheFuel() {
+    String source =
+        """
+        fun work(n) { let i = 0; while (i < 1000) i = i + 1; return n; }
+        let values = array(64);
+        pmap(work, values);
+        """;
+    RuntimeError error =
+        assertThrows(
+            RuntimeError.class, () -> run(new Governor(10_000, null, Governor.UNLIMITED), source));
+    assertTrue(error.getMessage().contains("ran out of fuel"), error.getMessage());
+  }
+
+  @Test
+  void blockedReceiveStopsAtTheDeadline() {
+    Governor governor =
+        new Governor(Governor.UNLIMITED, Duration.ofMillis(100), Governor.UNLIMITED);
+    RuntimeError error =
+        assertTimeoutPreemptively(
+            Duration.ofSeconds(5),
+            () -> assertThrows(RuntimeError.class, () -> run(governor, "channel(1).receive();")));
+    assertTrue(error.getMessage().contains("deadline"), error.getMessage());
+  }
+
+  @Test
+  void deadlineInsideANativeReachesTheHostAsLimitExceeded() {
+    Governor governor =
+        new Governor(Governor.UNLIMITED, Duration.ofMillis(200), Governor.UNLIMITED);
+    String source =
+        """
+        let c = channel(1);
+        c.receive();
+        """;
+    LimitExceeded error =
+        assertTimeoutPreemptively(
+            Duration.ofSeconds(5),
+            () -> assertThrows(LimitExceeded.class, () -> run(governor, source)));
+    assertTrue(error.getMessage().contains("deadline"), error.getMessage());
+    assertEquals(2, error.getToken().line());
+  }
+
+  @Test
+  void largeNativeAllocationsExceedTheQuotaBeforeAllocating() {
+    Governor governor = new Governor(Governor.UNLIMITED, null, 100_000_000);
+    String[] sources = {
+      "array(30000000);", "let s = \"xxxxxxxxxxxxxxxx\"; while (true) s = s + s;"
+    };
+    for (String source : sources) {
+      LimitExceeded error = assertThrows(LimitExceeded.class, () -> run(governor.renew(), source));
+      assertTrue(error.getMessage().contains("allocation quota"), error.getMessage());
+    }
+  }
+
+  @Test
+  void blockedJoinStopsWhenCancelled() {
+    Governor governor = new Governor();
+    Thread canceller =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException ex) {
+                return;
+              }
+              governor.cancel();
+            });
+    canceller.start();
+    String source =
+        """
+        fun forever() { return channel(1).receive(); }
+        spawn(forever).join();
+        """;
+    RuntimeError error =
+        assertTimeoutPreemptively(
+            Duration.ofSeconds(5),
+            () -> assertThrows(RuntimeError.class, () -> run(governor, source)));
+    assertTrue(error.getMessage().contains("cancelled"), error.getMessage());
+  }
+}
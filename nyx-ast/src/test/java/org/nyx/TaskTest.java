@@ -0,0 +1,58 @@
+package org.nyx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.nyx.Interpreter.RuntimeError;
+
+class TaskTest {
+  private static Object run(String source) {
+    try (Interpreter interpreter = new Interpreter()) {
+      return interpreter.execute(Program.compile("<test>", source));
+    }
+  }
+
+  @Test
+  void compoundAssignmentsOfCapturedVariablesAreAtomic() {
+    String source =
+        """
+        let n = 0;
+        fun work() { let i = 0; while (i < 20000) { n += 1; i = i + 1; } }
+        let tasks = array(8);
+        let k = 0;
+        while (k < 8) { tasks.set(k, spawn(work)); k = k + 1; }
+        k = 0;
+        while (k < 8) { tasks.get(k).join(); k = k + 1; }
+        n;
+        """;
+    assertEquals(160_000L, ((Number) run(source)).longValue());
+  }
+
+  @Test
+  void errorsOfTasksNobodyJoinsAreReported() {
+    Nyx.resetErrors();
+    String source =
+        """
+        fun bad() { return nil + 1; }
+        let task = spawn(bad);
+        while (!task.done) {}
+        """;
+    run(source);
+    assertEquals(1, Nyx.errorCount());
+
+    String joined =
+        """
+        fun bad() { return nil + 1; }
+        let task = spawn(bad);
+        while (!task.done) {}
+        task.join();
+        """;
+    Nyx.resetErrors();
+    RuntimeError error = assertThrows(RuntimeError.class, () -> run(joined));
+    assertTrue(error.getMessage().contains("reported before"), error.getMessage());
+    assertEquals(1, Nyx.errorCount());
+    Nyx.resetErrors();
+  }
+}
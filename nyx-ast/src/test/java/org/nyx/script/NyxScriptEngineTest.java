@@ -0,0 +1,30 @@
+package org.nyx.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import javax.script.ScriptContext;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import org.junit.jupiter.api.Test;
+import org.nyx.Nyx;
+
+class NyxScriptEngineTest {
+  @Test
+  void compileErrorsGoToTheContextAndIntoTheException() {
+    NyxScriptEngine engine = new NyxScriptEngine();
+    ScriptContext context = new SimpleScriptContext();
+    StringWriter err = new StringWriter();
+    context.setErrorWriter(err);
+
+    ScriptException exception =
+        assertThrows(ScriptException.class, () -> engine.eval("let a = 1;\nlet b = ;", context));
+    Nyx.resetErrors();
+
+    assertEquals(2, exception.getLineNumber());
+    assertTrue(exception.getMessage().contains("Expect expression."), exception.getMessage());
+    assertTrue(err.toString().contains("let b = ;"), err.toString());
+  }
+}
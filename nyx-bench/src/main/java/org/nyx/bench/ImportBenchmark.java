@@ -0,0 +1,61 @@
+package org.nyx.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.nyx.Token;
+import org.nyx.TokenType;
+import org.nyx.buildin.NyxModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures loading a module from disk, i.e. reading, scanning, parsing, resolving and running. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportBenchmark {
+  private Path directory;
+  private File file;
+  private Token name;
+
+  @Setup(Level.Trial)
+  public void write() throws IOException {
+    directory = Files.createTempDirectory("nyx-bench");
+    file = directory.resolve("module.nyx").toFile();
+    Files.writeString(file.toPath(), Workload.source("module"), StandardCharsets.UTF_8);
+    name = new Token(TokenType.IDENTIFIER, "bench", "module", null, 1, 1);
+  }
+
+  @TearDown(Level.Trial)
+  public void delete() throws IOException {
+    Files.deleteIfExists(file.toPath());
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public NyxModule load() {
+    NyxModule.unloadAll();
+    return NyxModule.from(name, file);
+  }
+
+  @Benchmark
+  public NyxModule cached() {
+    return NyxModule.from(name, file);
+  }
+}
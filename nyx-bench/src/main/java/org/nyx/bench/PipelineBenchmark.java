@@ -0,0 +1,81 @@
+package org.nyx.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.nyx.Interpreter;
+import org.nyx.Parser;
+import org.nyx.Program;
+import org.nyx.Scanner;
+import org.nyx.Stmt;
+import org.nyx.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures every stage of the pipeline separately on the same workloads. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+  @Param({"fib", "loop", "classes", "iterators"})
+  public String workload;
+
+  private String source;
+  private List<Token> tokens;
+  private List<Stmt> statements;
+  private Program program;
+  private Interpreter interpreter;
+
+  @Setup(Level.Trial)
+  public void compile() {
+    source = Workload.source(workload);
+    tokens = new Scanner(workload, source).scanTokens();
+    statements = new Parser(tokens).parse();
+    program = Program.resolve(statements);
+  }
+
+  // Every run starts with fresh global variables.
+  @Setup(Level.Invocation)
+  public void prepare() {
+    interpreter = new Interpreter();
+  }
+
+  @TearDown(Level.Invocation)
+  public void release() {
+    interpreter.close();
+  }
+
+  @Benchmark
+  public List<Token> scan() {
+    return new Scanner(workload, source).scanTokens();
+  }
+
+  @Benchmark
+  public List<Stmt> parse() {
+    return new Parser(tokens).parse();
+  }
+
+  @Benchmark
+  public Program resolve() {
+    return Program.resolve(statements);
+  }
+
+  @Benchmark
+  public Object interpret() {
+    interpreter.interpret(program);
+    return interpreter.getEnvironment();
+  }
+}
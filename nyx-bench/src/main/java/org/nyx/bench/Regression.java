@@ -0,0 +1,249 @@
+package org.nyx.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.nyx.Interpreter;
+import org.nyx.Nyx;
+import org.nyx.buildin.NyxModule;
+
+/**
+ * Performance regression gate over a set of nyx programs. Every program runs a few times for
+ * warmup and then several times measured, each run in a fresh interpreter with an empty module
+ * cache. The median wall time, the median bytes allocated by the running thread and the maximal
+ * peak heap are compared against a JSON baseline, any metric above the baseline by more than the
+ * threshold fails the run.
+ *
+ * <pre>
+ * Regression [--baseline file] [--update] [--threshold 0.1] [--warmup 5] [--runs 10] [path...]
+ * </pre>
+ *
+ * Paths are {@code .nyx} files or directories containing them and default to {@code examples}.
+ * Programs are run from the current directory, so imports resolve like they do for the CLI.
+ */
+public final class Regression {
+  private static final Pattern ENTRY =
+      Pattern.compile("\"((?:[^\"\\\\]|\\\\.)+)\"\\s*:\\s*\\{([^}]*)}");
+  private static final Pattern FIELD = Pattern.compile("\"(\\w+)\"\\s*:\\s*(\\d+)");
+  private static final List<String> METRICS =
+      List.of("wallNanos", "allocatedBytes", "peakHeapBytes");
+
+  private final int warmup;
+  private final int runs;
+
+  private Regression(int warmup, int runs) {
+    this.warmup = warmup;
+    this.runs = runs;
+  }
+
+  record Result(long wallNanos, long allocatedBytes, long peakHeapBytes) {
+    long get(String metric) {
+      return switch (metric) {
+        case "wallNanos" -> wallNanos;
+        case "allocatedBytes" -> allocatedBytes;
+        case "peakHeapBytes" -> peakHeapBytes;
+        default -> throw new IllegalArgumentException("Unknown metric: " + metric);
+      };
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    Path baseline = Path.of("nyx-baseline.json");
+    boolean update = false;
+    double threshold = 0.1;
+    int warmup = 5;
+    int runs = 10;
+    List<Path> paths = new ArrayList<>();
+
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--baseline" -> baseline = Path.of(args[++i]);
+        case "--update" -> update = true;
+        case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+        case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+        case "--runs" -> runs = Integer.parseInt(args[++i]);
+        default -> paths.add(Path.of(args[i]));
+      }
+    }
+    if (paths.isEmpty()) paths.add(Path.of("examples"));
+
+    Map<String, Result> results = new Regression(warmup, runs).measure(workloads(paths));
+
+    if (update || !Files.exists(baseline)) {
+      write(baseline, results);
+      System.out.println("Wrote baseline " + baseline);
+      return;
+    }
+
+    Map<String, Result> expected = read(baseline);
+    boolean regressed = false;
+    for (var entry : results.entrySet()) {
+      Result before = expected.get(entry.getKey());
+      if (before == null) {
+        System.out.println(entry.getKey() + ": not in baseline");
+        continue;
+      }
+      for (String metric : METRICS) {
+        long was = before.get(metric);
+        long is = entry.getValue().get(metric);
+        boolean failed = is > was * (1 + threshold);
+        regressed |= failed;
+        System.out.printf(
+            "%s %-15s %14d -> %14d %+7.1f%%%s%n",
+            entry.getKey(),
+            metric,
+            was,
+            is,
+            was == 0 ? 0.0 : 100.0 * (is - was) / was,
+            failed ? "  REGRESSION" : "");
+      }
+    }
+
+    if (regressed) System.exit(1);
+  }
+
+  private static List<Path> workloads(List<Path> paths) throws IOException {
+    List<Path> workloads = new ArrayList<>();
+    for (Path path : paths) {
+      if (Files.isDirectory(path)) {
+        try (Stream<Path> files = Files.list(path)) {
+          files.filter(file -> file.toString().endsWith(".nyx")).sorted().forEach(workloads::add);
+        }
+      } else workloads.add(path);
+    }
+    return workloads;
+  }
+
+  private Map<String, Result> measure(List<Path> workloads) throws IOException {
+    Map<String, Result> results = new LinkedHashMap<>();
+    for (Path workload : workloads) {
+      System.out.println("Measuring " + workload);
+      // Every run starts with no errors, a run which reported some is counted right after it.
+      int failed = 0;
+      for (int i = 0; i < warmup; i++) {
+        run(workload);
+        if (Nyx.hadError()) failed++;
+      }
+
+      Result[] measured = new Result[runs];
+      for (int i = 0; i < runs; i++) {
+        measured[i] = run(workload);
+        if (Nyx.hadError()) failed++;
+      }
+
+      results.put(workload.toString().replace('\\', '/'), summarize(measured));
+      if (failed > 0) {
+        System.out.printf(
+            "  note: %s reported errors in %d of %d runs%n", workload, failed, warmup + runs);
+      }
+    }
+    return results;
+  }
+
+  private static Result summarize(Result[] measured) {
+    long[] wall = Arrays.stream(measured).mapToLong(Result::wallNanos).sorted().toArray();
+    long[] allocated =
+        Arrays.stream(measured).mapToLong(Result::allocatedBytes).sorted().toArray();
+    long peak = Arrays.stream(measured).mapToLong(Result::peakHeapBytes).max().orElse(0);
+    return new Result(wall[wall.length / 2], allocated[allocated.length / 2], peak);
+  }
+
+  private static Result run(Path workload) throws IOException {
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    List<MemoryPoolMXBean> pools = new ArrayList<>();
+    for (var pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) pools.add(pool);
+    }
+
+    NyxModule.unloadAll();
+    System.gc();
+    pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+    PrintStream out = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    long allocated = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    try (Interpreter interpreter = new Interpreter()) {
+      Nyx.runFile(workload.toString(), interpreter);
+    } finally {
+      System.setOut(out);
+    }
+    long wall = System.nanoTime() - start;
+    allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+    long peak = 0;
+    for (var pool : pools) peak += pool.getPeakUsage().getUsed();
+    return new Result(wall, allocated, peak);
+  }
+
+  private static void write(Path path, Map<String, Result> results) throws IOException {
+    StringBuilder json = new StringBuilder("{\n");
+    int i = 0;
+    for (var entry : results.entrySet()) {
+      Result result = entry.getValue();
+      json.append("  \"").append(escape(entry.getKey())).append("\": {");
+      for (int m = 0; m < METRICS.size(); m++) {
+        if (m > 0) json.append(", ");
+        json.append('"').append(METRICS.get(m)).append("\": ").append(result.get(METRICS.get(m)));
+      }
+      json.append(++i < results.size() ? "},\n" : "}\n");
+    }
+    json.append("}\n");
+    Files.writeString(path, json, StandardCharsets.UTF_8);
+  }
+
+  private static Map<String, Result> read(Path path) throws IOException {
+    Map<String, Result> results = new LinkedHashMap<>();
+    Matcher entry = ENTRY.matcher(Files.readString(path, StandardCharsets.UTF_8));
+    while (entry.find()) {
+      Map<String, Long> fields = new LinkedHashMap<>();
+      Matcher field = FIELD.matcher(entry.group(2));
+      while (field.find()) fields.put(field.group(1), Long.parseLong(field.group(2)));
+      results.put(
+          unescape(entry.group(1)),
+          new Result(
+              fields.getOrDefault("wallNanos", 0L),
+              fields.getOrDefault("allocatedBytes", 0L),
+              fields.getOrDefault("peakHeapBytes", 0L)));
+    }
+    return results;
+  }
+
+  // Workload names are paths, they may contain quotes, backslashes and control characters.
+  private static String escape(String key) {
+    StringBuilder escaped = new StringBuilder();
+    for (char c : key.toCharArray()) {
+      if (c == '"' || c == '\\') escaped.append('\\').append(c);
+      else if (c < 0x20) escaped.append(String.format("\\u%04x", (int) c));
+      else escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+  private static String unescape(String key) {
+    StringBuilder unescaped = new StringBuilder();
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (c != '\\') unescaped.append(c);
+      else if (key.charAt(++i) == 'u') {
+        unescaped.append((char) Integer.parseInt(key.substring(i + 1, i + 5), 16));
+        i += 4;
+      } else unescaped.append(key.charAt(i));
+    }
+    return unescaped.toString();
+  }
+}
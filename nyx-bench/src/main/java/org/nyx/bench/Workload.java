@@ -0,0 +1,22 @@
+package org.nyx.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/** Nyx programs bundled as resources next to the benchmarks. */
+final class Workload {
+  private Workload() {
+    throw new UnsupportedOperationException();
+  }
+
+  static String source(String name) {
+    try (InputStream stream = Workload.class.getResourceAsStream(name + ".nyx")) {
+      if (stream == null) throw new IllegalArgumentException("Unknown workload: " + name);
+      return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}